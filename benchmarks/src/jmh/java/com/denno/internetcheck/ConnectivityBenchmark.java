@@ -0,0 +1,88 @@
+package com.denno.internetcheck;
+
+import android.net.NetworkInfo;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ConnectivityBenchmark {
+    private Connectivity wifi;
+    private Connectivity sameWifi;
+    private Connectivity otherExtraInfo;
+    private Connectivity mobile;
+
+    @Setup
+    public void setUp() {
+        wifi = wifi("\"office\"");
+        sameWifi = wifi("\"office\"");
+        otherExtraInfo = wifi("\"guest\"");
+        mobile = Connectivity.state(NetworkInfo.State.CONNECTED)
+                .detailedState(NetworkInfo.DetailedState.CONNECTED)
+                .type(0)
+                .subType(13)
+                .available(true)
+                .typeName("MOBILE")
+                .subTypeName("LTE")
+                .build();
+    }
+
+    private static Connectivity wifi(final String extraInfo) {
+        return Connectivity.state(NetworkInfo.State.CONNECTED)
+                .detailedState(NetworkInfo.DetailedState.CONNECTED)
+                .type(1)
+                .available(true)
+                .typeName("WIFI")
+                .extraInfo(extraInfo)
+                .build();
+    }
+
+    @Benchmark
+    public Connectivity build() {
+        return wifi("\"office\"");
+    }
+
+    @Benchmark
+    public boolean equalsSameState() {
+        return wifi.equals(sameWifi);
+    }
+
+    @Benchmark
+    public boolean equalsDifferentType() {
+        return wifi.equals(mobile);
+    }
+
+    @Benchmark
+    public boolean equalsDifferentExtraInfo() {
+        return wifi.equals(otherExtraInfo);
+    }
+
+    @Benchmark
+    public int hashCodeOfSnapshot() {
+        return wifi.hashCode();
+    }
+
+    @Benchmark
+    public String toStringOfSnapshot() {
+        return mobile.toString();
+    }
+
+    @Benchmark
+    public boolean changeDetectorDifferentExtraInfo() {
+        return ConnectivityChangeDetector.getInstance().test(wifi, otherExtraInfo);
+    }
+
+    @Benchmark
+    public boolean changeDetectorDifferentType() {
+        return ConnectivityChangeDetector.getInstance().test(wifi, mobile);
+    }
+}
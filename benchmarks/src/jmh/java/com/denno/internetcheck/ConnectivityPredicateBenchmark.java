@@ -0,0 +1,102 @@
+package com.denno.internetcheck;
+
+import android.net.NetworkInfo;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.disposables.CompositeDisposable;
+import io.reactivex.functions.Consumer;
+import io.reactivex.functions.Predicate;
+import io.reactivex.subjects.PublishSubject;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ConnectivityPredicateBenchmark {
+    private static final int[] TYPES = {0, 1, 6, 7, 9, 17};
+
+    @Param({"16"})
+    public int subscribers;
+
+    private Connectivity wifi;
+    private Predicate<Connectivity> hasState;
+    private Predicate<Connectivity> hasType;
+    private ConnectivityMatcher matcher;
+    private ConnectivityMatcher composed;
+    private PublishSubject<Connectivity> filtered;
+    private CompositeDisposable disposables;
+
+    @Setup
+    public void setUp(final Blackhole blackhole) {
+        wifi = Connectivity.state(NetworkInfo.State.CONNECTED).type(1).typeName("WIFI").build();
+        hasState = ConnectivityPredicate.hasState(NetworkInfo.State.CONNECTING,
+                NetworkInfo.State.SUSPENDED, NetworkInfo.State.CONNECTED);
+        hasType = ConnectivityPredicate.hasType(0, 6, 7, 9, 1);
+        matcher = ConnectivityPredicate.builder()
+                .state(NetworkInfo.State.CONNECTED)
+                .type(1, 9)
+                .roaming(false)
+                .build();
+        composed = matcher.or(ConnectivityPredicate.builder().type(0).build()).negate();
+
+        final Consumer<Connectivity> consumer = new Consumer<Connectivity>() {
+            @Override
+            public void accept(Connectivity connectivity) {
+                blackhole.consume(connectivity);
+            }
+        };
+        final List<ConnectivityMatcher> matchers = new ArrayList<>();
+        for (int i = 0; i < subscribers; i++) {
+            matchers.add(ConnectivityPredicate.builder().type(TYPES[i % TYPES.length]).build());
+        }
+
+        disposables = new CompositeDisposable();
+        filtered = PublishSubject.create();
+        for (ConnectivityMatcher subscriberMatcher : matchers) {
+            disposables.add(filtered.filter(subscriberMatcher).subscribe(consumer));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        disposables.dispose();
+    }
+
+    @Benchmark
+    public boolean hasState() throws Exception {
+        return hasState.test(wifi);
+    }
+
+    @Benchmark
+    public boolean hasType() throws Exception {
+        return hasType.test(wifi);
+    }
+
+    @Benchmark
+    public boolean compiledMatcher() {
+        return matcher.test(wifi);
+    }
+
+    @Benchmark
+    public boolean composedMatcher() {
+        return composed.test(wifi);
+    }
+
+    @Benchmark
+    public void filterPerSubscriber() {
+        filtered.onNext(wifi);
+    }
+}
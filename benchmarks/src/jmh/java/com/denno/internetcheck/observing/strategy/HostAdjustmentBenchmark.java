@@ -0,0 +1,56 @@
+package com.denno.internetcheck.observing.strategy;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HostAdjustmentBenchmark {
+    private static final String BARE_HOST = "clients3.google.com/generate_204";
+    private static final String HTTPS_HOST = "https://clients3.google.com/generate_204";
+    private static final String HTTP_HOST = "http://clients3.google.com/generate_204";
+
+    private final WalledGardenInternetObservingStrategy walledGarden =
+            new WalledGardenInternetObservingStrategy();
+    private final SocketInternetObservingStrategy socket = new SocketInternetObservingStrategy();
+
+    @Benchmark
+    public String walledGardenAdjustBareHost() {
+        return walledGarden.adjustHost(BARE_HOST);
+    }
+
+    @Benchmark
+    public String walledGardenAdjustHttpsHost() {
+        return walledGarden.adjustHost(HTTPS_HOST);
+    }
+
+    @Benchmark
+    public String socketAdjustHttpHost() {
+        return socket.adjustHost(HTTP_HOST);
+    }
+
+    @Benchmark
+    public String socketAdjustBareHost() {
+        return socket.adjustHost(BARE_HOST);
+    }
+
+    // URL parsing and connection object creation, nothing is sent
+    @Benchmark
+    public HttpURLConnection walledGardenCreateHttpUrlConnection() throws IOException {
+        return walledGarden.createUrlConnection(HTTP_HOST, 80, 2000);
+    }
+
+    @Benchmark
+    public HttpURLConnection walledGardenCreateHttpsUrlConnection() throws IOException {
+        return walledGarden.createUrlConnection(HTTPS_HOST, 443, 2000);
+    }
+}
@@ -0,0 +1,119 @@
+package com.denno.internetcheck.observing.strategy;
+
+import com.denno.internetcheck.observing.ProbeResult;
+import com.denno.internetcheck.observing.error.ErrorHandler;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// end-to-end probe latency against servers on the loopback interface, which leaves the
+// library's own overhead: resolution, socket setup, HTTP framing and result building
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProbeLatencyBenchmark {
+    private static final String LOOPBACK = "127.0.0.1";
+    private static final int TIMEOUT_IN_MS = 2000;
+    private static final int NO_CONTENT = 204;
+
+    private final ErrorHandler errorHandler = new ErrorHandler() {
+        @Override
+        public void handleError(Exception exception, String message) {
+        }
+    };
+    private final WalledGardenInternetObservingStrategy walledGarden =
+            new WalledGardenInternetObservingStrategy();
+    private final WalledGardenInternetObservingStrategy persistentWalledGarden =
+            new WalledGardenInternetObservingStrategy(true);
+    private final SocketInternetObservingStrategy socket = new SocketInternetObservingStrategy();
+    private final NioSocketInternetObservingStrategy nioSocket =
+            new NioSocketInternetObservingStrategy();
+
+    private HttpServer httpServer;
+    private ExecutorService httpExecutor;
+    private ServerSocket tcpServer;
+    private ExecutorService acceptor;
+    private String httpHost;
+
+    @Setup
+    public void setUp() throws IOException {
+        httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                0);
+        httpServer.createContext("/generate_204", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                exchange.sendResponseHeaders(NO_CONTENT, -1);
+                exchange.close();
+            }
+        });
+        httpExecutor = Executors.newSingleThreadExecutor();
+        httpServer.setExecutor(httpExecutor);
+        httpServer.start();
+        httpHost = "http://" + LOOPBACK + "/generate_204";
+
+        tcpServer = new ServerSocket(0, 128, InetAddress.getLoopbackAddress());
+        acceptor = Executors.newSingleThreadExecutor();
+        acceptor.execute(new Runnable() {
+            @Override
+            public void run() {
+                while (!tcpServer.isClosed()) {
+                    try {
+                        final Socket accepted = tcpServer.accept();
+                        accepted.close();
+                    } catch (IOException exception) {
+                        // the server socket has been closed
+                    }
+                }
+            }
+        });
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        httpServer.stop(0);
+        httpExecutor.shutdownNow();
+        tcpServer.close();
+        acceptor.shutdownNow();
+    }
+
+    @Benchmark
+    public ProbeResult walledGardenProbe() {
+        return walledGarden.probe(httpHost, httpServer.getAddress().getPort(), TIMEOUT_IN_MS,
+                NO_CONTENT, errorHandler);
+    }
+
+    @Benchmark
+    public ProbeResult walledGardenPersistentProbe() {
+        return persistentWalledGarden.probe(httpHost, httpServer.getAddress().getPort(),
+                TIMEOUT_IN_MS, NO_CONTENT, errorHandler);
+    }
+
+    @Benchmark
+    public ProbeResult socketProbe() {
+        return socket.probe(LOOPBACK, tcpServer.getLocalPort(), TIMEOUT_IN_MS, errorHandler);
+    }
+
+    @Benchmark
+    public Boolean nioSocketProbe() {
+        return nioSocket.checkInternetConnectivity(LOOPBACK, tcpServer.getLocalPort(),
+                TIMEOUT_IN_MS, NO_CONTENT, errorHandler).blockingGet();
+    }
+}
@@ -0,0 +1,73 @@
+package com.denno.internetcheck.observing.strategy;
+
+import android.net.NetworkInfo;
+
+import com.denno.internetcheck.Connectivity;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Flowable;
+import io.reactivex.functions.Consumer;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PropagateConnectedStateBenchmark {
+    private MarshmallowNetworkObservingStrategy strategy;
+    private Connectivity connectedWifi;
+    private Connectivity connectedMobile;
+    private Connectivity disconnectedMobile;
+    private Consumer<Connectivity> consumer;
+
+    @Setup
+    public void setUp(final Blackhole blackhole) {
+        strategy = new MarshmallowNetworkObservingStrategy();
+        connectedWifi = Connectivity.state(NetworkInfo.State.CONNECTED)
+                .detailedState(NetworkInfo.DetailedState.CONNECTED)
+                .type(1)
+                .build();
+        connectedMobile = Connectivity.state(NetworkInfo.State.CONNECTED)
+                .detailedState(NetworkInfo.DetailedState.CONNECTED)
+                .type(0)
+                .build();
+        disconnectedMobile = Connectivity.state(NetworkInfo.State.DISCONNECTED)
+                .detailedState(NetworkInfo.DetailedState.DISCONNECTED)
+                .type(0)
+                .build();
+        consumer = new Consumer<Connectivity>() {
+            @Override
+            public void accept(Connectivity connectivity) {
+                blackhole.consume(connectivity);
+            }
+        };
+    }
+
+    @Benchmark
+    public void steadyState() {
+        Flowable.fromPublisher(strategy.propagateAnyConnectedState(connectedWifi, connectedWifi))
+                .subscribe(consumer);
+    }
+
+    @Benchmark
+    public void handover() {
+        Flowable.fromPublisher(
+                strategy.propagateAnyConnectedState(connectedWifi, disconnectedMobile))
+                .subscribe(consumer);
+    }
+
+    @Benchmark
+    public void typeChangeWhileConnected() {
+        Flowable.fromPublisher(
+                strategy.propagateAnyConnectedState(connectedWifi, connectedMobile))
+                .subscribe(consumer);
+    }
+}
@@ -0,0 +1,16 @@
+package android.content;
+
+public abstract class Context {
+    public static final String CONNECTIVITY_SERVICE = "connectivity";
+    public static final String POWER_SERVICE = "power";
+
+    public abstract Object getSystemService(String name);
+
+    public abstract Context getApplicationContext();
+
+    public abstract String getPackageName();
+
+    public abstract Intent registerReceiver(BroadcastReceiver receiver, IntentFilter filter);
+
+    public abstract void unregisterReceiver(BroadcastReceiver receiver);
+}
@@ -0,0 +1,46 @@
+package android.net;
+
+public class ConnectivityManager {
+    public static final String CONNECTIVITY_ACTION = "android.net.conn.CONNECTIVITY_CHANGE";
+    public static final int TYPE_MOBILE = 0;
+    public static final int TYPE_WIFI = 1;
+    public static final int TYPE_DUMMY = 8;
+    public static final int TYPE_BLUETOOTH = 7;
+    public static final int TYPE_ETHERNET = 9;
+    public static final int TYPE_VPN = 17;
+
+    public NetworkInfo getActiveNetworkInfo() {
+        throw new RuntimeException("Stub!");
+    }
+
+    public Network getActiveNetwork() {
+        throw new RuntimeException("Stub!");
+    }
+
+    public NetworkCapabilities getNetworkCapabilities(Network network) {
+        throw new RuntimeException("Stub!");
+    }
+
+    public void registerNetworkCallback(NetworkRequest request, NetworkCallback networkCallback) {
+        throw new RuntimeException("Stub!");
+    }
+
+    public void unregisterNetworkCallback(NetworkCallback networkCallback) {
+        throw new RuntimeException("Stub!");
+    }
+
+    public static class NetworkCallback {
+        public void onAvailable(Network network) {
+        }
+
+        public void onLost(Network network) {
+        }
+
+        public void onCapabilitiesChanged(Network network,
+                                          NetworkCapabilities networkCapabilities) {
+        }
+
+        public void onLinkPropertiesChanged(Network network, LinkProperties linkProperties) {
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package android.net;
+
+import java.net.InetAddress;
+import java.util.List;
+
+public final class LinkProperties {
+    public String getInterfaceName() {
+        throw new RuntimeException("Stub!");
+    }
+
+    public List<LinkAddress> getLinkAddresses() {
+        throw new RuntimeException("Stub!");
+    }
+
+    public List<InetAddress> getDnsServers() {
+        throw new RuntimeException("Stub!");
+    }
+}
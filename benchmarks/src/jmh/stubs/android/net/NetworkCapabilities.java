@@ -0,0 +1,23 @@
+package android.net;
+
+public final class NetworkCapabilities {
+    public static final int NET_CAPABILITY_NOT_METERED = 11;
+    public static final int NET_CAPABILITY_INTERNET = 12;
+    public static final int NET_CAPABILITY_NOT_RESTRICTED = 13;
+    public static final int NET_CAPABILITY_VALIDATED = 16;
+    public static final int NET_CAPABILITY_CAPTIVE_PORTAL = 17;
+    public static final int NET_CAPABILITY_NOT_ROAMING = 18;
+    public static final int TRANSPORT_CELLULAR = 0;
+    public static final int TRANSPORT_WIFI = 1;
+    public static final int TRANSPORT_BLUETOOTH = 2;
+    public static final int TRANSPORT_ETHERNET = 3;
+    public static final int TRANSPORT_VPN = 4;
+
+    public boolean hasCapability(int capability) {
+        throw new RuntimeException("Stub!");
+    }
+
+    public boolean hasTransport(int transportType) {
+        throw new RuntimeException("Stub!");
+    }
+}
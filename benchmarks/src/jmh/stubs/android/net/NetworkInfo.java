@@ -0,0 +1,56 @@
+package android.net;
+
+public class NetworkInfo {
+    public enum State {
+        CONNECTING, CONNECTED, SUSPENDED, DISCONNECTING, DISCONNECTED, UNKNOWN
+    }
+
+    public enum DetailedState {
+        IDLE, SCANNING, CONNECTING, AUTHENTICATING, OBTAINING_IPADDR, CONNECTED, SUSPENDED,
+        DISCONNECTING, DISCONNECTED, FAILED, BLOCKED, VERIFYING_POOR_LINK, CAPTIVE_PORTAL_CHECK
+    }
+
+    public State getState() {
+        throw new RuntimeException("Stub!");
+    }
+
+    public DetailedState getDetailedState() {
+        throw new RuntimeException("Stub!");
+    }
+
+    public int getType() {
+        throw new RuntimeException("Stub!");
+    }
+
+    public int getSubtype() {
+        throw new RuntimeException("Stub!");
+    }
+
+    public boolean isAvailable() {
+        throw new RuntimeException("Stub!");
+    }
+
+    public boolean isFailover() {
+        throw new RuntimeException("Stub!");
+    }
+
+    public boolean isRoaming() {
+        throw new RuntimeException("Stub!");
+    }
+
+    public String getTypeName() {
+        throw new RuntimeException("Stub!");
+    }
+
+    public String getSubtypeName() {
+        throw new RuntimeException("Stub!");
+    }
+
+    public String getReason() {
+        throw new RuntimeException("Stub!");
+    }
+
+    public String getExtraInfo() {
+        throw new RuntimeException("Stub!");
+    }
+}
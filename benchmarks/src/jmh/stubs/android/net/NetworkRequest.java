@@ -0,0 +1,13 @@
+package android.net;
+
+public class NetworkRequest {
+    public static class Builder {
+        public Builder addCapability(int capability) {
+            throw new RuntimeException("Stub!");
+        }
+
+        public NetworkRequest build() {
+            throw new RuntimeException("Stub!");
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package android.util;
+
+// logging goes nowhere, so failing probes do not distort the measurements
+public final class Log {
+    public static int e(String tag, String msg) {
+        return 0;
+    }
+
+    public static int e(String tag, String msg, Throwable tr) {
+        return 0;
+    }
+}
@@ -0,0 +1,9 @@
+package io.reactivex.android.schedulers;
+
+import io.reactivex.Scheduler;
+
+public final class AndroidSchedulers {
+    public static Scheduler mainThread() {
+        throw new RuntimeException("Stub!");
+    }
+}
@@ -1,7 +1,5 @@
 package com.denno.internetcheck;
 
-import android.os.Build;
-
 public final class Preconditions {
 
     public static void checkNotNull(Object object, String message) {
@@ -28,13 +26,9 @@ public final class Preconditions {
         }
     }
 
-    public static boolean isAtLeastAndroidLollipop() {
-        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP;
-    }
-
-    public static boolean isAtLeastAndroidMarshmallow() {
-        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.M;
+    public static void checkArgument(boolean expression, String message) {
+        if (!expression) {
+            throw new IllegalArgumentException(message);
+        }
     }
 }
-
-
@@ -2,6 +2,9 @@ package com.denno.internetcheck.observing;
 
 import com.denno.internetcheck.observing.error.DefaultErrorHandler;
 import com.denno.internetcheck.observing.error.ErrorHandler;
+import com.denno.internetcheck.observing.event.ProbeEventListener;
+import com.denno.internetcheck.observing.interval.IntervalPolicy;
+import com.denno.internetcheck.observing.metrics.ProbeMetrics;
 import com.denno.internetcheck.observing.strategy.WalledGardenInternetObservingStrategy;
 
 import java.net.HttpURLConnection;
@@ -16,10 +19,16 @@ public final class InternetObservingSettings {
     private final int httpResponse;
     private final ErrorHandler errorHandler;
     private final InternetObservingStrategy strategy;
+    private final IntervalPolicy intervalPolicy;
+    private final int safetyNetInterval;
+    private final ProbeMetrics metrics;
+    private final ProbeEventListener eventListener;
 
     private InternetObservingSettings(int initialInterval, int interval, String host, int port,
                                       int timeout, int httpResponse, ErrorHandler errorHandler,
-                                      InternetObservingStrategy strategy) {
+                                      InternetObservingStrategy strategy,
+                                      IntervalPolicy intervalPolicy, int safetyNetInterval,
+                                      ProbeMetrics metrics, ProbeEventListener eventListener) {
         this.initialInterval = initialInterval;
         this.interval = interval;
         this.host = host;
@@ -28,6 +37,10 @@ public final class InternetObservingSettings {
         this.httpResponse = httpResponse;
         this.errorHandler = errorHandler;
         this.strategy = strategy;
+        this.intervalPolicy = intervalPolicy;
+        this.safetyNetInterval = safetyNetInterval;
+        this.metrics = metrics;
+        this.eventListener = eventListener;
     }
 
     public static InternetObservingSettings create() {
@@ -36,7 +49,9 @@ public final class InternetObservingSettings {
 
     private InternetObservingSettings(Builder builder) {
         this(builder.initialInterval, builder.interval, builder.host, builder.port, builder.timeout,
-                builder.httpResponse, builder.errorHandler, builder.strategy);
+                builder.httpResponse, builder.errorHandler, builder.strategy,
+                builder.intervalPolicy, builder.safetyNetInterval, builder.metrics,
+                builder.eventListener);
     }
 
     private InternetObservingSettings() {
@@ -47,6 +62,23 @@ public final class InternetObservingSettings {
         return new Builder();
     }
 
+    // a builder starting out with these settings
+    public Builder toBuilder() {
+        return new Builder()
+                .initialInterval(initialInterval)
+                .interval(interval)
+                .host(host)
+                .port(port)
+                .timeout(timeout)
+                .httpResponse(httpResponse)
+                .errorHandler(errorHandler)
+                .strategy(strategy)
+                .intervalPolicy(intervalPolicy)
+                .safetyNetInterval(safetyNetInterval)
+                .metrics(metrics)
+                .eventListener(eventListener);
+    }
+
     public int initialInterval() {
         return initialInterval;
     }
@@ -79,6 +111,26 @@ public final class InternetObservingSettings {
         return strategy;
     }
 
+    // null when the strategy polls at the fixed interval on its own
+    public IntervalPolicy intervalPolicy() {
+        return intervalPolicy;
+    }
+
+    // poll interval between network events when probes are driven by network changes
+    public int safetyNetInterval() {
+        return safetyNetInterval;
+    }
+
+    // null when probes are not measured
+    public ProbeMetrics metrics() {
+        return metrics;
+    }
+
+    // ProbeEventListener.NONE when probe phases are not reported
+    public ProbeEventListener eventListener() {
+        return eventListener;
+    }
+
     public final static class Builder {
         private int initialInterval = 0;
         private int interval = 2000;
@@ -88,6 +140,10 @@ public final class InternetObservingSettings {
         private int httpResponse = HttpURLConnection.HTTP_NO_CONTENT;
         private ErrorHandler errorHandler = new DefaultErrorHandler();
         private InternetObservingStrategy strategy = new WalledGardenInternetObservingStrategy();
+        private IntervalPolicy intervalPolicy = null;
+        private int safetyNetInterval = 60000;
+        private ProbeMetrics metrics = null;
+        private ProbeEventListener eventListener = ProbeEventListener.NONE;
 
         private Builder() {
         }
@@ -132,6 +188,26 @@ public final class InternetObservingSettings {
             return this;
         }
 
+        public Builder intervalPolicy(IntervalPolicy intervalPolicy) {
+            this.intervalPolicy = intervalPolicy;
+            return this;
+        }
+
+        public Builder safetyNetInterval(int safetyNetInterval) {
+            this.safetyNetInterval = safetyNetInterval;
+            return this;
+        }
+
+        public Builder metrics(ProbeMetrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        public Builder eventListener(ProbeEventListener eventListener) {
+            this.eventListener = eventListener;
+            return this;
+        }
+
         public InternetObservingSettings build() {
             return new InternetObservingSettings(this);
         }
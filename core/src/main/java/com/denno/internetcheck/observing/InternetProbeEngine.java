@@ -0,0 +1,394 @@
+package com.denno.internetcheck.observing;
+
+import com.denno.internetcheck.Preconditions;
+import com.denno.internetcheck.observing.event.ProbeEventListener;
+import com.denno.internetcheck.observing.interval.FixedIntervalPolicy;
+import com.denno.internetcheck.observing.interval.IntervalPolicy;
+import com.denno.internetcheck.observing.interval.IntervalProbeLoop;
+import com.denno.internetcheck.observing.metrics.ProbeMetrics;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.reactivex.Observable;
+import io.reactivex.Scheduler;
+import io.reactivex.Single;
+import io.reactivex.SingleSource;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.functions.Action;
+import io.reactivex.functions.Consumer;
+import io.reactivex.functions.Function;
+import io.reactivex.schedulers.Schedulers;
+
+// Process-wide registry of running internet probe loops. Subscriptions with equal effective
+// settings share one loop, which replays the latest result to late subscribers and stops
+// together with the last subscription. The error handler of the first subscriber is used.
+// One-off checks with equal settings join the probe already in flight or get a recent result.
+// Cached results are pruned once they are too old, and network changes are watched only while
+// there are any.
+public final class InternetProbeEngine {
+    private static final InternetProbeEngine INSTANCE =
+            new InternetProbeEngine(Schedulers.computation());
+
+    private final ConcurrentMap<ProbeKey, Observable<Boolean>> probes =
+            new ConcurrentHashMap<>();
+    private final ConcurrentMap<ProbeKey, CachedCheck> checks = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final Scheduler pruneScheduler;
+    // subscribed while checks is not empty, guarded by this
+    private Disposable networkWatch;
+
+    InternetProbeEngine(final Scheduler pruneScheduler) {
+        this.pruneScheduler = pruneScheduler;
+    }
+
+    public static InternetProbeEngine getInstance() {
+        return INSTANCE;
+    }
+
+    public Observable<Boolean> observeInternetConnectivity(
+            final InternetObservingSettings settings) {
+        Preconditions.checkNotNull(settings, "settings == null");
+        Preconditions.checkNotNull(settings.strategy(), "strategy == null");
+
+        final ProbeKey key = new ProbeKey(settings);
+        final Observable<Boolean> existing = probes.get(key);
+        if (existing != null) {
+            return existing;
+        }
+
+        final Observable<Boolean> created = share(key, settings);
+        final Observable<Boolean> raced = probes.putIfAbsent(key, created);
+        return raced != null ? raced : created;
+    }
+
+    // networkChanges is kept subscribed while any result is cached, so whatever invalidates the
+    // engine on network changes, like ConnectivityMonitor, runs as long as there is something
+    // to invalidate; it is subscribed before the first probe starts
+    public Single<Boolean> checkInternetConnectivity(final InternetObservingSettings settings,
+                                                     final int maxAgeInMs,
+                                                     final Observable<?> networkChanges) {
+        Preconditions.checkNotNull(settings, "settings == null");
+        Preconditions.checkNotNull(settings.strategy(), "strategy == null");
+        Preconditions.checkGreaterOrEqualToZero(maxAgeInMs, "maxAgeInMs is not a positive number");
+        Preconditions.checkNotNull(networkChanges, "networkChanges == null");
+
+        final Single<Boolean> probe = createCheck(settings);
+        final ProbeKey key = ProbeKey.forCheck(settings);
+
+        return Single.defer(new Callable<SingleSource<Boolean>>() {
+            @Override
+            public SingleSource<Boolean> call() {
+                final CachedCheck check = checks.get(key);
+                final Single<Boolean> cached =
+                        check != null ? check.get(maxAgeInMs, generation.get()) : null;
+                return cached != null ? cached
+                        : track(key, probe, maxAgeInMs, networkChanges);
+            }
+        });
+    }
+
+    // a pruned check cannot be joined anymore, its key gets a fresh one
+    private synchronized Single<Boolean> track(final ProbeKey key, final Single<Boolean> probe,
+                                               final int maxAgeInMs,
+                                               final Observable<?> networkChanges) {
+        if (networkWatch == null) {
+            networkWatch = networkChanges.subscribe(new Consumer<Object>() {
+                @Override
+                public void accept(Object change) {
+                }
+            }, new Consumer<Throwable>() {
+                @Override
+                public void accept(Throwable throwable) {
+                    // cached results just live until they are too old then
+                }
+            });
+        }
+
+        CachedCheck check = checks.get(key);
+        Single<Boolean> cached = check != null ? check.get(maxAgeInMs, generation.get()) : null;
+        if (cached == null) {
+            check = new CachedCheck(probe);
+            checks.put(key, check);
+            cached = check.get(maxAgeInMs, generation.get());
+        }
+        return cached;
+    }
+
+    private synchronized void prune() {
+        final long current = generation.get();
+        for (Map.Entry<ProbeKey, CachedCheck> entry : checks.entrySet()) {
+            if (entry.getValue().retireIfExpired(current)) {
+                checks.remove(entry.getKey(), entry.getValue());
+            }
+        }
+        if (checks.isEmpty() && networkWatch != null) {
+            networkWatch.dispose();
+            networkWatch = null;
+        }
+    }
+
+    private void schedulePrune(final long delayInMs) {
+        pruneScheduler.scheduleDirect(new Runnable() {
+            @Override
+            public void run() {
+                prune();
+            }
+        }, delayInMs, TimeUnit.MILLISECONDS);
+    }
+
+    // the strategy's check for the settings, recorded into their metrics and reported to their
+    // event listener when they have any
+    public static Single<Boolean> createCheck(final InternetObservingSettings settings) {
+        Preconditions.checkNotNull(settings, "settings == null");
+        final InternetObservingStrategy strategy = settings.strategy();
+        if (!isInstrumented(settings)) {
+            return strategy.checkInternetConnectivity(settings.host(), settings.port(),
+                    settings.timeout(), settings.httpResponse(), settings.errorHandler());
+        }
+
+        final Single<ProbeResult> probe;
+        if (strategy instanceof InternetProbingStrategy) {
+            // probing strategies record their probes on their own
+            probe = ((InternetProbingStrategy) strategy).probeInternetConnectivity(settings);
+        } else {
+            probe = ProbeMetrics.measure(timedCheck(settings), settings);
+        }
+        return probe.map(new Function<ProbeResult, Boolean>() {
+            @Override
+            public Boolean apply(ProbeResult result) {
+                return result.reachable();
+            }
+        });
+    }
+
+    // strategies reporting only a Boolean get the latency measured around their check
+    public static Single<ProbeResult> timedCheck(final InternetObservingSettings settings) {
+        Preconditions.checkNotNull(settings, "settings == null");
+        final Single<Boolean> check = settings.strategy().checkInternetConnectivity(
+                settings.host(), settings.port(), settings.timeout(), settings.httpResponse(),
+                settings.errorHandler());
+        return Single.defer(new Callable<SingleSource<ProbeResult>>() {
+            @Override
+            public SingleSource<ProbeResult> call() {
+                final long start = System.nanoTime();
+                return check.map(new Function<Boolean, ProbeResult>() {
+                    @Override
+                    public ProbeResult apply(Boolean connected) {
+                        final long latencyInMs =
+                                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                        return ProbeResult.builder()
+                                .reachable(connected)
+                                .latencyInMs(latencyInMs)
+                                .build();
+                    }
+                });
+            }
+        });
+    }
+
+    private static boolean isInstrumented(final InternetObservingSettings settings) {
+        return settings.metrics() != null
+                || (settings.eventListener() != null
+                && settings.eventListener() != ProbeEventListener.NONE);
+    }
+
+    // drops cached check results and keeps new checks from joining probes already in flight;
+    // ConnectivityMonitor calls it once per network change
+    public void invalidate() {
+        generation.incrementAndGet();
+    }
+
+    int activeProbes() {
+        return probes.size();
+    }
+
+    int cachedChecks() {
+        return checks.size();
+    }
+
+    synchronized boolean watchesNetwork() {
+        return networkWatch != null;
+    }
+
+    private Observable<Boolean> share(final ProbeKey key,
+                                      final InternetObservingSettings settings) {
+        final AtomicReference<Observable<Boolean>> self = new AtomicReference<>();
+        final Observable<Boolean> shared = createProbeLoop(settings)
+                .doFinally(new Action() {
+                    @Override
+                    public void run() {
+                        probes.remove(key, self.get());
+                    }
+                })
+                .replay(1)
+                .refCount();
+        self.set(shared);
+        return shared;
+    }
+
+    private static Observable<Boolean> createProbeLoop(final InternetObservingSettings settings) {
+        final InternetObservingStrategy strategy = settings.strategy();
+
+        if (settings.intervalPolicy() == null && !isInstrumented(settings)) {
+            return strategy.observeInternetConnectivity(settings.initialInterval(),
+                    settings.interval(), settings.host(), settings.port(), settings.timeout(),
+                    settings.httpResponse(), settings.errorHandler());
+        }
+
+        // instrumented probes go through the loop, which polls like the strategy would
+        final IntervalPolicy policy = settings.intervalPolicy() != null
+                ? settings.intervalPolicy() : new FixedIntervalPolicy(settings.interval());
+        return IntervalProbeLoop.create(createCheck(settings), settings.initialInterval(),
+                settings.interval(), policy, Schedulers.io());
+    }
+
+    static final class ProbeKey {
+        private final InternetObservingStrategy strategy;
+        private final int initialInterval;
+        private final int interval;
+        private final String host;
+        private final int port;
+        private final int timeout;
+        private final int httpResponse;
+        private final IntervalPolicy intervalPolicy;
+        private final ProbeMetrics metrics;
+        private final ProbeEventListener eventListener;
+
+        ProbeKey(final InternetObservingSettings settings) {
+            this(settings, settings.initialInterval(), settings.interval(),
+                    settings.intervalPolicy());
+        }
+
+        private ProbeKey(final InternetObservingSettings settings, final int initialInterval,
+                         final int interval, final IntervalPolicy intervalPolicy) {
+            this.strategy = settings.strategy();
+            this.initialInterval = initialInterval;
+            this.interval = interval;
+            this.host = settings.host();
+            this.port = settings.port();
+            this.timeout = settings.timeout();
+            this.httpResponse = settings.httpResponse();
+            this.intervalPolicy = intervalPolicy;
+            this.metrics = settings.metrics();
+            this.eventListener = settings.eventListener();
+        }
+
+        // single checks do not depend on the polling configuration
+        static ProbeKey forCheck(final InternetObservingSettings settings) {
+            return new ProbeKey(settings, 0, 0, null);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+
+            ProbeKey that = (ProbeKey) o;
+
+            return initialInterval == that.initialInterval
+                    && interval == that.interval
+                    && port == that.port
+                    && timeout == that.timeout
+                    && httpResponse == that.httpResponse
+                    && strategy.equals(that.strategy)
+                    && (host != null ? host.equals(that.host) : that.host == null)
+                    && (intervalPolicy != null ? intervalPolicy.equals(that.intervalPolicy)
+                    : that.intervalPolicy == null)
+                    && metrics == that.metrics
+                    && eventListener == that.eventListener;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = strategy.hashCode();
+            result = 31 * result + initialInterval;
+            result = 31 * result + interval;
+            result = 31 * result + (host != null ? host.hashCode() : 0);
+            result = 31 * result + port;
+            result = 31 * result + timeout;
+            result = 31 * result + httpResponse;
+            result = 31 * result + (intervalPolicy != null ? intervalPolicy.hashCode() : 0);
+            result = 31 * result + (metrics != null ? metrics.hashCode() : 0);
+            result = 31 * result + (eventListener != null ? eventListener.hashCode() : 0);
+            return result;
+        }
+    }
+
+    private final class CachedCheck {
+        private final Single<Boolean> probe;
+        private Single<Boolean> inFlight;
+        private long inFlightGeneration;
+        private Boolean result;
+        private long resultGeneration;
+        private long completedAt;
+        private int maxAgeInMs;
+        private boolean retired;
+
+        CachedCheck(final Single<Boolean> probe) {
+            this.probe = probe;
+        }
+
+        // null once the check has been pruned
+        synchronized Single<Boolean> get(final int maxAgeInMs, final long generation) {
+            if (retired) {
+                return null;
+            }
+            this.maxAgeInMs = maxAgeInMs;
+            final long ageInMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - completedAt);
+            if (result != null && resultGeneration == generation && ageInMs <= maxAgeInMs) {
+                return Single.just(result);
+            }
+
+            // a probe started before the last invalidation is not joined anymore
+            if (inFlight == null || inFlightGeneration != generation) {
+                inFlightGeneration = generation;
+                inFlight = probe.doOnSuccess(new Consumer<Boolean>() {
+                    @Override
+                    public void accept(Boolean connected) {
+                        complete(connected, generation);
+                    }
+                }).doOnError(new Consumer<Throwable>() {
+                    @Override
+                    public void accept(Throwable throwable) {
+                        complete(null, generation);
+                    }
+                }).cache();
+            }
+            return inFlight;
+        }
+
+        // results too old for the last caller or from before an invalidation are expired
+        synchronized boolean retireIfExpired(final long generation) {
+            final long ageInMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - completedAt);
+            retired = inFlight == null
+                    && (result == null || resultGeneration != generation || ageInMs > maxAgeInMs);
+            return retired;
+        }
+
+        private void complete(final Boolean connected, final long generation) {
+            final int delayInMs;
+            synchronized (this) {
+                if (generation == inFlightGeneration) {
+                    inFlight = null;
+                }
+                if (generation >= resultGeneration) {
+                    result = connected;
+                    resultGeneration = generation;
+                    completedAt = System.nanoTime();
+                }
+                delayInMs = maxAgeInMs;
+            }
+            schedulePrune(delayInMs + 1);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.denno.internetcheck.observing;
+
+import io.reactivex.Observable;
+import io.reactivex.Single;
+
+// Strategy which reports the details of every probe instead of a bare Boolean.
+public interface InternetProbingStrategy extends InternetObservingStrategy {
+
+    Observable<ProbeResult> observeProbeResults(final InternetObservingSettings settings);
+
+    Single<ProbeResult> probeInternetConnectivity(final InternetObservingSettings settings);
+}
@@ -0,0 +1,8 @@
+package com.denno.internetcheck.observing;
+
+public enum InternetStatus {
+    ONLINE,
+    // the network intercepts probes until the user signs in, e.g. in a hotel or on a train
+    CAPTIVE_PORTAL,
+    OFFLINE
+}
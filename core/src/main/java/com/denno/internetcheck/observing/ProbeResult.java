@@ -0,0 +1,220 @@
+package com.denno.internetcheck.observing;
+
+import java.net.Inet6Address;
+import java.net.InetAddress;
+
+@SuppressWarnings("PMD") // I want to have the same method names as variable names on purpose
+public final class ProbeResult {
+    public static final int NO_HTTP_STATUS = -1;
+    public static final long NOT_MEASURED = -1;
+
+    private final boolean reachable;
+    private final long latencyInMs;
+    private final long connectTimeInMs;
+    private final int httpStatus;
+    private final InetAddress remoteAddress;
+    private final Throwable failure;
+    private final boolean captivePortal;
+    private final String portalUrl;
+
+    private ProbeResult(Builder builder) {
+        reachable = builder.reachable;
+        latencyInMs = builder.latencyInMs;
+        connectTimeInMs = builder.connectTimeInMs;
+        httpStatus = builder.httpStatus;
+        remoteAddress = builder.remoteAddress;
+        failure = builder.failure;
+        captivePortal = builder.captivePortal;
+        portalUrl = builder.portalUrl;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static ProbeResult reachable(final long latencyInMs) {
+        return builder().reachable(true).latencyInMs(latencyInMs).build();
+    }
+
+    public static ProbeResult unreachable(final long latencyInMs, final Throwable failure) {
+        return builder().reachable(false).latencyInMs(latencyInMs).failure(failure).build();
+    }
+
+    public boolean reachable() {
+        return reachable;
+    }
+
+    // whole probe duration, including host name resolution
+    public long latencyInMs() {
+        return latencyInMs;
+    }
+
+    // from the start of connecting until the connection, TLS included, is established; about
+    // zero for a reused connection. Socket probes resolve the host before, walled garden probes
+    // leave it to HttpURLConnection, so theirs includes the lookup unless they are traced
+    public long connectTimeInMs() {
+        return connectTimeInMs;
+    }
+
+    public int httpStatus() {
+        return httpStatus;
+    }
+
+    // address the probe connected to, null when the strategy does not know it
+    public InetAddress remoteAddress() {
+        return remoteAddress;
+    }
+
+    public boolean isIpv6() {
+        return remoteAddress instanceof Inet6Address;
+    }
+
+    public Throwable failure() {
+        return failure;
+    }
+
+    public boolean captivePortal() {
+        return captivePortal;
+    }
+
+    // where the portal sends the user to sign in, null when the probe response did not tell
+    public String portalUrl() {
+        return portalUrl;
+    }
+
+    public InternetStatus status() {
+        if (reachable) {
+            return InternetStatus.ONLINE;
+        }
+        return captivePortal ? InternetStatus.CAPTIVE_PORTAL : InternetStatus.OFFLINE;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        ProbeResult that = (ProbeResult) o;
+
+        if (reachable != that.reachable) {
+            return false;
+        }
+        if (latencyInMs != that.latencyInMs) {
+            return false;
+        }
+        if (connectTimeInMs != that.connectTimeInMs) {
+            return false;
+        }
+        if (httpStatus != that.httpStatus) {
+            return false;
+        }
+        if (captivePortal != that.captivePortal) {
+            return false;
+        }
+        if (portalUrl != null ? !portalUrl.equals(that.portalUrl) : that.portalUrl != null) {
+            return false;
+        }
+        if (remoteAddress != null ? !remoteAddress.equals(that.remoteAddress)
+                : that.remoteAddress != null) {
+            return false;
+        }
+        return failure != null ? failure.equals(that.failure) : that.failure == null;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = reachable ? 1 : 0;
+        result = 31 * result + (int) (latencyInMs ^ (latencyInMs >>> 32));
+        result = 31 * result + (int) (connectTimeInMs ^ (connectTimeInMs >>> 32));
+        result = 31 * result + httpStatus;
+        result = 31 * result + (remoteAddress != null ? remoteAddress.hashCode() : 0);
+        result = 31 * result + (failure != null ? failure.hashCode() : 0);
+        result = 31 * result + (captivePortal ? 1 : 0);
+        result = 31 * result + (portalUrl != null ? portalUrl.hashCode() : 0);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "ProbeResult{"
+                + "reachable="
+                + reachable
+                + ", latencyInMs="
+                + latencyInMs
+                + ", connectTimeInMs="
+                + connectTimeInMs
+                + ", httpStatus="
+                + httpStatus
+                + ", remoteAddress="
+                + remoteAddress
+                + ", failure="
+                + failure
+                + ", captivePortal="
+                + captivePortal
+                + ", portalUrl="
+                + portalUrl
+                + '}';
+    }
+
+    public final static class Builder {
+        private boolean reachable = false;
+        private long latencyInMs = NOT_MEASURED;
+        private long connectTimeInMs = NOT_MEASURED;
+        private int httpStatus = NO_HTTP_STATUS;
+        private InetAddress remoteAddress = null;
+        private Throwable failure = null;
+        private boolean captivePortal = false;
+        private String portalUrl = null;
+
+        private Builder() {
+        }
+
+        public Builder reachable(boolean reachable) {
+            this.reachable = reachable;
+            return this;
+        }
+
+        public Builder latencyInMs(long latencyInMs) {
+            this.latencyInMs = latencyInMs;
+            return this;
+        }
+
+        public Builder connectTimeInMs(long connectTimeInMs) {
+            this.connectTimeInMs = connectTimeInMs;
+            return this;
+        }
+
+        public Builder httpStatus(int httpStatus) {
+            this.httpStatus = httpStatus;
+            return this;
+        }
+
+        public Builder remoteAddress(InetAddress remoteAddress) {
+            this.remoteAddress = remoteAddress;
+            return this;
+        }
+
+        public Builder failure(Throwable failure) {
+            this.failure = failure;
+            return this;
+        }
+
+        public Builder captivePortal(boolean captivePortal) {
+            this.captivePortal = captivePortal;
+            return this;
+        }
+
+        public Builder portalUrl(String portalUrl) {
+            this.portalUrl = portalUrl;
+            return this;
+        }
+
+        public ProbeResult build() {
+            return new ProbeResult(this);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.denno.internetcheck.observing;
+
+import com.denno.internetcheck.Preconditions;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+// A host and port to probe. Targets are equal when they point to the same host and port,
+// whatever their timeouts.
+public final class ProbeTarget {
+    private static final int SETTINGS_TIMEOUT = 0;
+
+    private final String host;
+    private final int port;
+    private final int timeoutInMs;
+
+    private ProbeTarget(final String host, final int port, final int timeoutInMs) {
+        this.host = host;
+        this.port = port;
+        this.timeoutInMs = timeoutInMs;
+    }
+
+    // probed with the timeout of the settings
+    public static ProbeTarget create(final String host, final int port) {
+        Preconditions.checkNotNullOrEmpty(host, "host is null or empty");
+        Preconditions.checkGreaterThanZero(port, "port is not a positive number");
+        return new ProbeTarget(host, port, SETTINGS_TIMEOUT);
+    }
+
+    // probed with its own timeout, e.g. a longer one for a distant or slower endpoint
+    public static ProbeTarget create(final String host, final int port, final int timeoutInMs) {
+        Preconditions.checkNotNullOrEmpty(host, "host is null or empty");
+        Preconditions.checkGreaterThanZero(port, "port is not a positive number");
+        Preconditions.checkGreaterThanZero(timeoutInMs, "timeoutInMs is not a positive number");
+        return new ProbeTarget(host, port, timeoutInMs);
+    }
+
+    // the targets in their given order, without duplicates; the first of equal targets is kept
+    public static List<ProbeTarget> distinct(final List<ProbeTarget> targets) {
+        Preconditions.checkNotNull(targets, "targets == null");
+        final Set<ProbeTarget> distinct = new LinkedHashSet<>(targets.size());
+        for (ProbeTarget target : targets) {
+            Preconditions.checkNotNull(target, "target == null");
+            distinct.add(target);
+        }
+        return new ArrayList<>(distinct);
+    }
+
+    // the target made of host and port, followed by those of the targets which differ from it
+    public static List<ProbeTarget> withPrimary(final String host, final int port,
+                                                final List<ProbeTarget> targets) {
+        final List<ProbeTarget> all = new ArrayList<>(targets.size() + 1);
+        all.add(create(host, port));
+        all.addAll(targets);
+        return distinct(all);
+    }
+
+    public String host() {
+        return host;
+    }
+
+    public int port() {
+        return port;
+    }
+
+    // the own timeout of the target, or settingsTimeoutInMs when it has none
+    public int timeoutInMs(final int settingsTimeoutInMs) {
+        return timeoutInMs != SETTINGS_TIMEOUT ? timeoutInMs : settingsTimeoutInMs;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        ProbeTarget that = (ProbeTarget) o;
+
+        return port == that.port && host.equals(that.host);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * host.hashCode() + port;
+    }
+
+    @Override
+    public String toString() {
+        return "ProbeTarget{host='" + host + '\'' + ", port=" + port
+                + ", timeoutInMs=" + timeoutInMs + '}';
+    }
+}
@@ -0,0 +1,72 @@
+package com.denno.internetcheck.observing;
+
+public final class ThroughputEstimate {
+    public static final double UNKNOWN = -1;
+
+    private final double bytesPerSecond;
+    private final double sampleBytesPerSecond;
+    private final long sampleBytes;
+    private final long sampleDurationInMs;
+    private final boolean fresh;
+
+    public ThroughputEstimate(final double bytesPerSecond, final double sampleBytesPerSecond,
+                              final long sampleBytes, final long sampleDurationInMs,
+                              final boolean fresh) {
+        this.bytesPerSecond = bytesPerSecond;
+        this.sampleBytesPerSecond = sampleBytesPerSecond;
+        this.sampleBytes = sampleBytes;
+        this.sampleDurationInMs = sampleDurationInMs;
+        this.fresh = fresh;
+    }
+
+    public static ThroughputEstimate unknown() {
+        return new ThroughputEstimate(UNKNOWN, UNKNOWN, 0, 0, false);
+    }
+
+    // EWMA smoothed over all samples so far
+    public double bytesPerSecond() {
+        return bytesPerSecond;
+    }
+
+    public double sampleBytesPerSecond() {
+        return sampleBytesPerSecond;
+    }
+
+    public long sampleBytes() {
+        return sampleBytes;
+    }
+
+    public long sampleDurationInMs() {
+        return sampleDurationInMs;
+    }
+
+    // false when the estimate was served from the previous sample without a download
+    public boolean fresh() {
+        return fresh;
+    }
+
+    public boolean known() {
+        return bytesPerSecond >= 0;
+    }
+
+    public ThroughputEstimate stale() {
+        return new ThroughputEstimate(bytesPerSecond, sampleBytesPerSecond, sampleBytes,
+                sampleDurationInMs, false);
+    }
+
+    @Override
+    public String toString() {
+        return "ThroughputEstimate{"
+                + "bytesPerSecond="
+                + bytesPerSecond
+                + ", sampleBytesPerSecond="
+                + sampleBytesPerSecond
+                + ", sampleBytes="
+                + sampleBytes
+                + ", sampleDurationInMs="
+                + sampleDurationInMs
+                + ", fresh="
+                + fresh
+                + '}';
+    }
+}
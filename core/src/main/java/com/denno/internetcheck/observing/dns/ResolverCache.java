@@ -0,0 +1,134 @@
+package com.denno.internetcheck.observing.dns;
+
+import com.denno.internetcheck.Preconditions;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Caches host name lookups of the probe strategies, including failed ones for a shorter time,
+// so a slow resolver is not queried on every probe. The cache is cleared whenever the network
+// or its DNS servers change, see ConnectivityMonitor. Concurrent misses of a host share one
+// lookup, and lookups started before the last invalidation are not kept.
+public final class ResolverCache {
+    private static final long DEFAULT_TTL_IN_MS = 60000;
+    private static final long DEFAULT_NEGATIVE_TTL_IN_MS = 5000;
+    private static final ResolverCache DEFAULT =
+            new ResolverCache(DEFAULT_TTL_IN_MS, DEFAULT_NEGATIVE_TTL_IN_MS);
+
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final long ttlInNanos;
+    private final long negativeTtlInNanos;
+
+    public ResolverCache(final long ttlInMs, final long negativeTtlInMs) {
+        Preconditions.checkArgument(ttlInMs >= 0, "ttlInMs is not a positive number");
+        Preconditions.checkArgument(negativeTtlInMs >= 0,
+                "negativeTtlInMs is not a positive number");
+        this.ttlInNanos = TimeUnit.MILLISECONDS.toNanos(ttlInMs);
+        this.negativeTtlInNanos = TimeUnit.MILLISECONDS.toNanos(negativeTtlInMs);
+    }
+
+    public static ResolverCache getDefault() {
+        return DEFAULT;
+    }
+
+    public InetAddress[] resolveAll(final String host) throws UnknownHostException {
+        Preconditions.checkNotNullOrEmpty(host, "host is null or empty");
+
+        while (true) {
+            final long now = System.nanoTime();
+            final long current = generation.get();
+            final Entry cached = entries.get(host);
+            if (cached != null && cached.generation == current && !cached.isExpired(now)) {
+                hits.incrementAndGet();
+                return cached.get(host);
+            }
+
+            // whoever puts the pending entry first looks the host up, the others wait for it
+            final Entry entry = new Entry(current);
+            final boolean owner = cached == null ? entries.putIfAbsent(host, entry) == null
+                    : entries.replace(host, cached, entry);
+            if (owner) {
+                misses.incrementAndGet();
+                lookup(host, now, entry);
+                if (generation.get() != current) {
+                    entries.remove(host, entry);
+                }
+                return entry.get(host);
+            }
+        }
+    }
+
+    // returns an unresolved address when the lookup fails, like new InetSocketAddress(host, port)
+    public InetSocketAddress resolve(final String host, final int port) {
+        try {
+            return new InetSocketAddress(resolveAll(host)[0], port);
+        } catch (UnknownHostException exception) {
+            return InetSocketAddress.createUnresolved(host, port);
+        }
+    }
+
+    public void invalidate() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    public long hits() {
+        return hits.get();
+    }
+
+    public long misses() {
+        return misses.get();
+    }
+
+    private void lookup(final String host, final long now, final Entry entry) {
+        try {
+            entry.complete(InetAddress.getAllByName(host), now + ttlInNanos);
+        } catch (UnknownHostException | RuntimeException exception) {
+            entry.complete(null, now + negativeTtlInNanos);
+        }
+    }
+
+    private static final class Entry {
+        private final long generation;
+        private final CountDownLatch resolved = new CountDownLatch(1);
+        private volatile InetAddress[] addresses;
+        private volatile long expiresAt;
+
+        Entry(final long generation) {
+            this.generation = generation;
+        }
+
+        void complete(final InetAddress[] addresses, final long expiresAt) {
+            this.addresses = addresses;
+            this.expiresAt = expiresAt;
+            resolved.countDown();
+        }
+
+        // pending lookups do not expire, they are joined
+        boolean isExpired(final long now) {
+            return resolved.getCount() == 0 && now - expiresAt >= 0;
+        }
+
+        InetAddress[] get(final String host) throws UnknownHostException {
+            try {
+                resolved.await();
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new UnknownHostException(host);
+            }
+            if (addresses == null || addresses.length == 0) {
+                throw new UnknownHostException(host);
+            }
+            return addresses.clone();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.denno.internetcheck.observing.error;
+
+import com.jakewharton.nopen.annotation.Open;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// java.util.logging keeps the probe core free of Android, on Android it is routed to logcat
+@Open
+public class DefaultErrorHandler implements ErrorHandler {
+    private static final Logger LOGGER = Logger.getLogger("ConnectivityCheck");
+
+    @Override
+    public void handleError(final Exception exception, final String message) {
+        LOGGER.log(Level.SEVERE, message, exception);
+    }
+}
@@ -0,0 +1,64 @@
+package com.denno.internetcheck.observing.event;
+
+@SuppressWarnings("PMD") // I want to have the same method names as variable names on purpose
+public final class PhaseTimings {
+    private final ProbePhase phase;
+    private final long count;
+    private final long p50InMs;
+    private final long p95InMs;
+    private final long p99InMs;
+    private final long maxInMs;
+
+    PhaseTimings(final ProbePhase phase, final long count, final long p50InMs,
+                 final long p95InMs, final long p99InMs, final long maxInMs) {
+        this.phase = phase;
+        this.count = count;
+        this.p50InMs = p50InMs;
+        this.p95InMs = p95InMs;
+        this.p99InMs = p99InMs;
+        this.maxInMs = maxInMs;
+    }
+
+    public ProbePhase phase() {
+        return phase;
+    }
+
+    // number of probes which went through the phase
+    public long count() {
+        return count;
+    }
+
+    public long p50InMs() {
+        return p50InMs;
+    }
+
+    public long p95InMs() {
+        return p95InMs;
+    }
+
+    public long p99InMs() {
+        return p99InMs;
+    }
+
+    public long maxInMs() {
+        return maxInMs;
+    }
+
+    @Override
+    public String toString() {
+        return "PhaseTimings{"
+                + "phase="
+                + phase
+                + ", count="
+                + count
+                + ", p50InMs="
+                + p50InMs
+                + ", p95InMs="
+                + p95InMs
+                + ", p99InMs="
+                + p99InMs
+                + ", maxInMs="
+                + maxInMs
+                + '}';
+    }
+}
@@ -0,0 +1,60 @@
+package com.denno.internetcheck.observing.event;
+
+import com.denno.internetcheck.observing.ProbeResult;
+import com.denno.internetcheck.observing.ProbeTarget;
+
+import java.net.InetAddress;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Callbacks for the phases of a single probe, in the order they happen. Every callback gets the
+// probe's id, unique within the process, and a System.nanoTime() timestamp. A probe ends with
+// exactly one of probeEnd or probeFailed; phases a strategy does not go through are skipped,
+// e.g. TLS for plain http or DNS and connect for a reused keep-alive connection.
+// Callbacks run on the probing thread and should return quickly.
+public abstract class ProbeEventListener {
+    // strategies skip the timestamps and callbacks altogether for this listener
+    public static final ProbeEventListener NONE = new ProbeEventListener() {
+    };
+
+    private static final AtomicLong PROBE_IDS = new AtomicLong();
+
+    public static long nextProbeId() {
+        return PROBE_IDS.incrementAndGet();
+    }
+
+    public void probeStart(final long probeId, final ProbeTarget target,
+                           final long timestampInNanos) {
+    }
+
+    public void dnsStart(final long probeId, final String host, final long timestampInNanos) {
+    }
+
+    public void dnsEnd(final long probeId, final String host, final InetAddress[] addresses,
+                       final long timestampInNanos) {
+    }
+
+    public void connectStart(final long probeId, final long timestampInNanos) {
+    }
+
+    public void connectEnd(final long probeId, final long timestampInNanos) {
+    }
+
+    public void secureConnectStart(final long probeId, final long timestampInNanos) {
+    }
+
+    public void secureConnectEnd(final long probeId, final long timestampInNanos) {
+    }
+
+    public void responseHeaders(final long probeId, final int httpStatus,
+                                final long timestampInNanos) {
+    }
+
+    // the probe got an answer, which may still be unreachable, e.g. for an unexpected status
+    public void probeEnd(final long probeId, final ProbeResult result,
+                         final long timestampInNanos) {
+    }
+
+    public void probeFailed(final long probeId, final Throwable failure,
+                            final long timestampInNanos) {
+    }
+}
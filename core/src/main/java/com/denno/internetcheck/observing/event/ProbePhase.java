@@ -0,0 +1,11 @@
+package com.denno.internetcheck.observing.event;
+
+public enum ProbePhase {
+    DNS,
+    CONNECT,
+    TLS,
+    // from the established connection to the response headers
+    RESPONSE,
+    // the whole probe, failed ones included
+    TOTAL
+}
@@ -0,0 +1,146 @@
+package com.denno.internetcheck.observing.event;
+
+import com.denno.internetcheck.observing.ProbeResult;
+import com.denno.internetcheck.observing.ProbeTarget;
+import com.denno.internetcheck.observing.metrics.LatencyHistogram;
+
+import java.net.InetAddress;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+// Aggregates the phase durations of all probes it listens to into latency histograms, so a slow
+// probe can be attributed to DNS, connecting, the TLS handshake or waiting for the response.
+public final class ProbePhaseRecorder extends ProbeEventListener {
+    private static final int PROBE_START = 0;
+    private static final int DNS_START = 1;
+    private static final int CONNECT_START = 2;
+    private static final int TLS_START = 3;
+    private static final int CONNECTED = 4;
+    private static final int MARKS = 5;
+    private static final long UNSET = Long.MIN_VALUE;
+
+    // marks of the probes in flight, each only touched by its probing thread
+    private final ConcurrentMap<Long, long[]> probes = new ConcurrentHashMap<>();
+    private final Map<ProbePhase, LatencyHistogram> histograms;
+
+    public ProbePhaseRecorder() {
+        final Map<ProbePhase, LatencyHistogram> histograms = new EnumMap<>(ProbePhase.class);
+        for (ProbePhase phase : ProbePhase.values()) {
+            histograms.put(phase, new LatencyHistogram());
+        }
+        this.histograms = Collections.unmodifiableMap(histograms);
+    }
+
+    @Override
+    public void probeStart(final long probeId, final ProbeTarget target,
+                           final long timestampInNanos) {
+        final long[] marks = new long[MARKS];
+        for (int i = 0; i < MARKS; i++) {
+            marks[i] = UNSET;
+        }
+        marks[PROBE_START] = timestampInNanos;
+        probes.put(probeId, marks);
+    }
+
+    @Override
+    public void dnsStart(final long probeId, final String host, final long timestampInNanos) {
+        mark(probeId, DNS_START, timestampInNanos);
+    }
+
+    @Override
+    public void dnsEnd(final long probeId, final String host, final InetAddress[] addresses,
+                       final long timestampInNanos) {
+        record(probeId, ProbePhase.DNS, DNS_START, timestampInNanos);
+    }
+
+    @Override
+    public void connectStart(final long probeId, final long timestampInNanos) {
+        mark(probeId, CONNECT_START, timestampInNanos);
+    }
+
+    @Override
+    public void connectEnd(final long probeId, final long timestampInNanos) {
+        record(probeId, ProbePhase.CONNECT, CONNECT_START, timestampInNanos);
+        mark(probeId, CONNECTED, timestampInNanos);
+    }
+
+    @Override
+    public void secureConnectStart(final long probeId, final long timestampInNanos) {
+        mark(probeId, TLS_START, timestampInNanos);
+    }
+
+    @Override
+    public void secureConnectEnd(final long probeId, final long timestampInNanos) {
+        record(probeId, ProbePhase.TLS, TLS_START, timestampInNanos);
+        mark(probeId, CONNECTED, timestampInNanos);
+    }
+
+    @Override
+    public void responseHeaders(final long probeId, final int httpStatus,
+                                final long timestampInNanos) {
+        record(probeId, ProbePhase.RESPONSE, CONNECTED, timestampInNanos);
+    }
+
+    @Override
+    public void probeEnd(final long probeId, final ProbeResult result,
+                         final long timestampInNanos) {
+        finish(probeId, timestampInNanos);
+    }
+
+    @Override
+    public void probeFailed(final long probeId, final Throwable failure,
+                            final long timestampInNanos) {
+        finish(probeId, timestampInNanos);
+    }
+
+    public Map<ProbePhase, PhaseTimings> snapshot() {
+        final Map<ProbePhase, PhaseTimings> timings = new EnumMap<>(ProbePhase.class);
+        for (Map.Entry<ProbePhase, LatencyHistogram> entry : histograms.entrySet()) {
+            timings.put(entry.getKey(), timingsOf(entry.getKey(), entry.getValue()));
+        }
+        return Collections.unmodifiableMap(timings);
+    }
+
+    public PhaseTimings snapshot(final ProbePhase phase) {
+        return timingsOf(phase, histograms.get(phase));
+    }
+
+    private static PhaseTimings timingsOf(final ProbePhase phase,
+                                          final LatencyHistogram histogram) {
+        final long[] counts = histogram.counts();
+        long count = 0;
+        for (long bucket : counts) {
+            count += bucket;
+        }
+        final long maxInMs = histogram.maxInMs();
+        return new PhaseTimings(phase, count,
+                LatencyHistogram.percentileInMs(counts, 50, maxInMs),
+                LatencyHistogram.percentileInMs(counts, 95, maxInMs),
+                LatencyHistogram.percentileInMs(counts, 99, maxInMs), maxInMs);
+    }
+
+    private void mark(final long probeId, final int mark, final long timestampInNanos) {
+        final long[] marks = probes.get(probeId);
+        if (marks != null) {
+            marks[mark] = timestampInNanos;
+        }
+    }
+
+    private void record(final long probeId, final ProbePhase phase, final int startMark,
+                        final long timestampInNanos) {
+        final long[] marks = probes.get(probeId);
+        if (marks != null && marks[startMark] != UNSET) {
+            histograms.get(phase).record(
+                    TimeUnit.NANOSECONDS.toMillis(timestampInNanos - marks[startMark]));
+        }
+    }
+
+    private void finish(final long probeId, final long timestampInNanos) {
+        record(probeId, ProbePhase.TOTAL, PROBE_START, timestampInNanos);
+        probes.remove(probeId);
+    }
+}
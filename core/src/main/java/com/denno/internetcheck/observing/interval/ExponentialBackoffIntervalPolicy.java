@@ -0,0 +1,88 @@
+package com.denno.internetcheck.observing.interval;
+
+import com.denno.internetcheck.Preconditions;
+
+// Probes at the minimal interval right after the state flips or while probes fail, and grows
+// the interval by the multiplier up to the ceiling while the connection stays stable.
+public final class ExponentialBackoffIntervalPolicy implements IntervalPolicy {
+    private static final double DEFAULT_MULTIPLIER = 2.0;
+
+    private final int minIntervalInMs;
+    private final int maxIntervalInMs;
+    private final double multiplier;
+
+    public ExponentialBackoffIntervalPolicy(final int minIntervalInMs, final int maxIntervalInMs) {
+        this(minIntervalInMs, maxIntervalInMs, DEFAULT_MULTIPLIER);
+    }
+
+    public ExponentialBackoffIntervalPolicy(final int minIntervalInMs, final int maxIntervalInMs,
+                                            final double multiplier) {
+        Preconditions.checkGreaterThanZero(minIntervalInMs,
+                "minIntervalInMs is not a positive number");
+        Preconditions.checkArgument(maxIntervalInMs >= minIntervalInMs,
+                "maxIntervalInMs is lower than minIntervalInMs");
+        Preconditions.checkArgument(multiplier >= 1.0, "multiplier is lower than 1");
+        this.minIntervalInMs = minIntervalInMs;
+        this.maxIntervalInMs = maxIntervalInMs;
+        this.multiplier = multiplier;
+    }
+
+    public int minIntervalInMs() {
+        return minIntervalInMs;
+    }
+
+    public int maxIntervalInMs() {
+        return maxIntervalInMs;
+    }
+
+    public double multiplier() {
+        return multiplier;
+    }
+
+    @Override
+    public int nextIntervalInMs(final int previousIntervalInMs, final boolean changed,
+                                final boolean connected) {
+        if (changed || !connected) {
+            return minIntervalInMs;
+        }
+        final double next = Math.max(previousIntervalInMs, minIntervalInMs) * multiplier;
+        return (int) Math.min(next, maxIntervalInMs);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        ExponentialBackoffIntervalPolicy that = (ExponentialBackoffIntervalPolicy) o;
+
+        return minIntervalInMs == that.minIntervalInMs
+                && maxIntervalInMs == that.maxIntervalInMs
+                && Double.compare(that.multiplier, multiplier) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = minIntervalInMs;
+        result = 31 * result + maxIntervalInMs;
+        final long bits = Double.doubleToLongBits(multiplier);
+        result = 31 * result + (int) (bits ^ (bits >>> 32));
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "ExponentialBackoffIntervalPolicy{"
+                + "minIntervalInMs="
+                + minIntervalInMs
+                + ", maxIntervalInMs="
+                + maxIntervalInMs
+                + ", multiplier="
+                + multiplier
+                + '}';
+    }
+}
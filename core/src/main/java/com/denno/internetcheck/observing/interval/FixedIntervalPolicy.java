@@ -0,0 +1,39 @@
+package com.denno.internetcheck.observing.interval;
+
+import com.denno.internetcheck.Preconditions;
+
+public final class FixedIntervalPolicy implements IntervalPolicy {
+    private final int intervalInMs;
+
+    public FixedIntervalPolicy(final int intervalInMs) {
+        Preconditions.checkGreaterThanZero(intervalInMs, "intervalInMs is not a positive number");
+        this.intervalInMs = intervalInMs;
+    }
+
+    @Override
+    public int nextIntervalInMs(final int previousIntervalInMs, final boolean changed,
+                                final boolean connected) {
+        return intervalInMs;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return intervalInMs == ((FixedIntervalPolicy) o).intervalInMs;
+    }
+
+    @Override
+    public int hashCode() {
+        return intervalInMs;
+    }
+
+    @Override
+    public String toString() {
+        return "FixedIntervalPolicy{intervalInMs=" + intervalInMs + '}';
+    }
+}
@@ -0,0 +1,7 @@
+package com.denno.internetcheck.observing.interval;
+
+public interface IntervalPolicy {
+
+    int nextIntervalInMs(final int previousIntervalInMs, final boolean changed,
+                         final boolean connected);
+}
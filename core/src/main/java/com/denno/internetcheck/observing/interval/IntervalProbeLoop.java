@@ -0,0 +1,82 @@
+package com.denno.internetcheck.observing.interval;
+
+import com.denno.internetcheck.Preconditions;
+
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Observable;
+import io.reactivex.ObservableEmitter;
+import io.reactivex.ObservableOnSubscribe;
+import io.reactivex.Scheduler;
+import io.reactivex.Single;
+import io.reactivex.annotations.NonNull;
+
+// Repeats a single probe with the delay between probes chosen by an IntervalPolicy
+// instead of the fixed period of Observable.interval.
+public final class IntervalProbeLoop {
+
+    private IntervalProbeLoop() {
+    }
+
+    public static Observable<Boolean> create(final Single<Boolean> probe,
+                                             final int initialIntervalInMs, final int intervalInMs,
+                                             final IntervalPolicy policy,
+                                             final Scheduler scheduler) {
+        Preconditions.checkNotNull(probe, "probe == null");
+        Preconditions.checkGreaterOrEqualToZero(initialIntervalInMs,
+                "initialIntervalInMs is not a positive number");
+        Preconditions.checkGreaterThanZero(intervalInMs, "intervalInMs is not a positive number");
+        Preconditions.checkNotNull(policy, "policy == null");
+        Preconditions.checkNotNull(scheduler, "scheduler == null");
+
+        return Observable.create(new ObservableOnSubscribe<Boolean>() {
+            @Override
+            public void subscribe(@NonNull ObservableEmitter<Boolean> emitter) {
+                final Scheduler.Worker worker = scheduler.createWorker();
+                emitter.setDisposable(worker);
+                worker.schedule(new ProbeTask(probe, intervalInMs, policy, worker, emitter),
+                        initialIntervalInMs, TimeUnit.MILLISECONDS);
+            }
+        }).distinctUntilChanged();
+    }
+
+    private static final class ProbeTask implements Runnable {
+        private final Single<Boolean> probe;
+        private final IntervalPolicy policy;
+        private final Scheduler.Worker worker;
+        private final ObservableEmitter<Boolean> emitter;
+        private Boolean lastResult;
+        private int lastIntervalInMs;
+
+        ProbeTask(final Single<Boolean> probe, final int intervalInMs, final IntervalPolicy policy,
+                  final Scheduler.Worker worker, final ObservableEmitter<Boolean> emitter) {
+            this.probe = probe;
+            this.policy = policy;
+            this.worker = worker;
+            this.emitter = emitter;
+            this.lastIntervalInMs = intervalInMs;
+        }
+
+        @Override
+        public void run() {
+            final boolean connected;
+            try {
+                connected = probe.blockingGet();
+            } catch (RuntimeException exception) {
+                emitter.tryOnError(exception);
+                return;
+            }
+
+            if (emitter.isDisposed()) {
+                return;
+            }
+
+            final boolean changed = lastResult == null || lastResult != connected;
+            lastResult = connected;
+            emitter.onNext(connected);
+
+            lastIntervalInMs = policy.nextIntervalInMs(lastIntervalInMs, changed, connected);
+            worker.schedule(this, lastIntervalInMs, TimeUnit.MILLISECONDS);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.denno.internetcheck.observing.metrics;
+
+import com.denno.internetcheck.observing.ProbeResult;
+
+import java.net.ConnectException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.Locale;
+
+import javax.net.ssl.SSLException;
+
+public enum FailureCause {
+    TIMEOUT,
+    DNS,
+    CONNECTION_REFUSED,
+    CONNECTION_RESET,
+    TLS,
+    UNEXPECTED_STATUS,
+    CAPTIVE_PORTAL,
+    UNKNOWN;
+
+    // strategies reporting only a Boolean give no failure, those probes end up as UNKNOWN
+    public static FailureCause of(final ProbeResult result) {
+        if (result.captivePortal()) {
+            return CAPTIVE_PORTAL;
+        }
+        final Throwable failure = result.failure();
+        if (failure == null) {
+            return result.httpStatus() != ProbeResult.NO_HTTP_STATUS ? UNEXPECTED_STATUS : UNKNOWN;
+        }
+        if (failure instanceof SocketTimeoutException) {
+            return TIMEOUT;
+        }
+        if (failure instanceof UnknownHostException) {
+            return DNS;
+        }
+        if (failure instanceof ConnectException) {
+            return isTimeout(failure) ? TIMEOUT : CONNECTION_REFUSED;
+        }
+        if (failure instanceof SSLException) {
+            return TLS;
+        }
+        if (failure instanceof SocketException && isReset(failure)) {
+            return CONNECTION_RESET;
+        }
+        return UNKNOWN;
+    }
+
+    private static boolean isTimeout(final Throwable failure) {
+        final String message = failure.getMessage();
+        return message != null && message.toLowerCase(Locale.US).contains("timed out");
+    }
+
+    private static boolean isReset(final Throwable failure) {
+        final String message = failure.getMessage();
+        return message != null && message.toLowerCase(Locale.US).contains("reset");
+    }
+}
@@ -0,0 +1,103 @@
+package com.denno.internetcheck.observing.metrics;
+
+import com.denno.internetcheck.Preconditions;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Log-linear histogram of latencies in milliseconds. Values below 32 ms get a bucket each,
+// larger ones share 16 buckets per power of two, so a percentile is off by at most 1/16.
+// Recording is a single atomic increment and never blocks.
+public final class LatencyHistogram {
+    private static final int LINEAR_BUCKETS = 32;
+    private static final int LINEAR_BITS = 5;
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // values above 2^31 ms, about 24 days, are counted in the last bucket
+    private static final int MAX_EXPONENT = 31;
+    private static final int BUCKETS =
+            LINEAR_BUCKETS + (MAX_EXPONENT - LINEAR_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(final long latencyInMs) {
+        if (latencyInMs < 0) {
+            return;
+        }
+        counts.incrementAndGet(bucketOf(latencyInMs));
+
+        long current = max.get();
+        while (latencyInMs > current && !max.compareAndSet(current, latencyInMs)) {
+            current = max.get();
+        }
+    }
+
+    public long maxInMs() {
+        return max.get();
+    }
+
+    // not atomic across buckets, probes recorded meanwhile may or may not be included
+    public long[] counts() {
+        final long[] copy = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+        }
+        return copy;
+    }
+
+    // the latency below which the given share of the recorded values lies, 0 when empty
+    public static long percentileInMs(final long[] counts, final double percentile) {
+        Preconditions.checkArgument(percentile > 0 && percentile <= 100,
+                "percentile is not within (0, 100]");
+
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        final long rank = (long) Math.ceil(total * percentile / 100);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return valueOf(i);
+            }
+        }
+        return valueOf(counts.length - 1);
+    }
+
+    // a bucket's middle may lie above the largest value recorded into it
+    public static long percentileInMs(final long[] counts, final double percentile,
+                                      final long maxInMs) {
+        return Math.min(percentileInMs(counts, percentile), maxInMs);
+    }
+
+    static int bucketOf(final long latencyInMs) {
+        if (latencyInMs < LINEAR_BUCKETS) {
+            return (int) latencyInMs;
+        }
+        final int exponent = 63 - Long.numberOfLeadingZeros(latencyInMs);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        final int subBucket =
+                (int) (latencyInMs >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR_BUCKETS + (exponent - LINEAR_BITS) * SUB_BUCKETS + subBucket;
+    }
+
+    // middle of the bucket's range
+    static long valueOf(final int bucket) {
+        if (bucket < LINEAR_BUCKETS) {
+            return bucket;
+        }
+        final int exponent = LINEAR_BITS + (bucket - LINEAR_BUCKETS) / SUB_BUCKETS;
+        final int subBucket = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS;
+        final int shift = exponent - SUB_BUCKET_BITS;
+        final long lower = (long) (SUB_BUCKETS + subBucket) << shift;
+        return lower + ((1L << shift) >>> 1);
+    }
+}
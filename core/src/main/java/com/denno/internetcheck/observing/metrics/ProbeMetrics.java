@@ -0,0 +1,174 @@
+package com.denno.internetcheck.observing.metrics;
+
+import com.denno.internetcheck.Preconditions;
+import com.denno.internetcheck.observing.InternetObservingSettings;
+import com.denno.internetcheck.observing.ProbeResult;
+import com.denno.internetcheck.observing.ProbeTarget;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import io.reactivex.Single;
+import io.reactivex.SingleSource;
+import io.reactivex.SingleTransformer;
+import io.reactivex.annotations.NonNull;
+import io.reactivex.functions.Action;
+import io.reactivex.functions.Consumer;
+
+// Counts and latencies of internet probes, per probed target. Set it with
+// InternetObservingSettings.Builder.metrics and the strategies, InternetProbeEngine and
+// ConnectivityCheck record every probe made with those settings. Recording only touches atomic
+// counters, snapshot() copies them for export.
+public final class ProbeMetrics {
+    private final ConcurrentMap<ProbeTarget, TargetMetrics> targets = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public static ProbeMetrics create() {
+        return new ProbeMetrics();
+    }
+
+    // records the probe into the metrics of the settings, if they have any
+    public static Single<ProbeResult> measure(final Single<ProbeResult> probe,
+                                              final InternetObservingSettings settings) {
+        final ProbeMetrics metrics = settings.metrics();
+        if (metrics == null) {
+            return probe;
+        }
+        return probe.compose(metrics.measure(ProbeTarget.create(settings.host(), settings.port())));
+    }
+
+    public SingleTransformer<ProbeResult, ProbeResult> measure(final ProbeTarget target) {
+        Preconditions.checkNotNull(target, "target == null");
+        return new SingleTransformer<ProbeResult, ProbeResult>() {
+            @Override
+            public SingleSource<ProbeResult> apply(@NonNull final Single<ProbeResult> upstream) {
+                return Single.defer(new Callable<SingleSource<ProbeResult>>() {
+                    @Override
+                    public SingleSource<ProbeResult> call() {
+                        return measureOnce(upstream, target);
+                    }
+                });
+            }
+        };
+    }
+
+    private Single<ProbeResult> measureOnce(final Single<ProbeResult> probe,
+                                            final ProbeTarget target) {
+        final AtomicBoolean finished = new AtomicBoolean();
+        probeStarted();
+        return probe.doOnSuccess(new Consumer<ProbeResult>() {
+            @Override
+            public void accept(ProbeResult result) {
+                if (finished.compareAndSet(false, true)) {
+                    probeFinished(target, result);
+                }
+            }
+        }).doOnError(new Consumer<Throwable>() {
+            @Override
+            public void accept(Throwable throwable) {
+                if (finished.compareAndSet(false, true)) {
+                    probeFinished(target,
+                            ProbeResult.unreachable(ProbeResult.NOT_MEASURED, throwable));
+                }
+            }
+        }).doOnDispose(new Action() {
+            @Override
+            public void run() {
+                if (finished.compareAndSet(false, true)) {
+                    probeCancelled();
+                }
+            }
+        });
+    }
+
+    public void probeStarted() {
+        inFlight.incrementAndGet();
+    }
+
+    public void probeFinished(final ProbeTarget target, final ProbeResult result) {
+        Preconditions.checkNotNull(target, "target == null");
+        Preconditions.checkNotNull(result, "result == null");
+        inFlight.decrementAndGet();
+        metricsOf(target).record(result);
+    }
+
+    // a probe disposed before its result only leaves the in-flight count
+    public void probeCancelled() {
+        inFlight.decrementAndGet();
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    public ProbeMetricsSnapshot snapshot() {
+        final Map<ProbeTarget, TargetMetricsSnapshot> snapshots = new HashMap<>();
+        for (Map.Entry<ProbeTarget, TargetMetrics> entry : targets.entrySet()) {
+            snapshots.put(entry.getKey(), entry.getValue().snapshot(entry.getKey()));
+        }
+        return new ProbeMetricsSnapshot(inFlight.get(), Collections.unmodifiableMap(snapshots));
+    }
+
+    private TargetMetrics metricsOf(final ProbeTarget target) {
+        final TargetMetrics existing = targets.get(target);
+        if (existing != null) {
+            return existing;
+        }
+        final TargetMetrics created = new TargetMetrics();
+        final TargetMetrics raced = targets.putIfAbsent(target, created);
+        return raced != null ? raced : created;
+    }
+
+    private static final class TargetMetrics {
+        private static final int UNKNOWN = -1;
+        private static final int UNREACHABLE = 0;
+        private static final int REACHABLE = 1;
+
+        private final LatencyHistogram latencies = new LatencyHistogram();
+        private final AtomicLong successes = new AtomicLong();
+        private final AtomicLongArray failures = new AtomicLongArray(FailureCause.values().length);
+        private final AtomicLong transitions = new AtomicLong();
+        private final AtomicInteger lastState = new AtomicInteger(UNKNOWN);
+
+        // latencies of successful probes only, failures mostly measure a timeout
+        void record(final ProbeResult result) {
+            if (result.reachable()) {
+                successes.incrementAndGet();
+                latencies.record(result.latencyInMs());
+            } else {
+                failures.incrementAndGet(FailureCause.of(result).ordinal());
+            }
+
+            final int state = result.reachable() ? REACHABLE : UNREACHABLE;
+            final int previous = lastState.getAndSet(state);
+            if (previous != UNKNOWN && previous != state) {
+                transitions.incrementAndGet();
+            }
+        }
+
+        TargetMetricsSnapshot snapshot(final ProbeTarget target) {
+            final Map<FailureCause, Long> failuresByCause = new HashMap<>();
+            for (FailureCause cause : FailureCause.values()) {
+                final long count = failures.get(cause.ordinal());
+                if (count > 0) {
+                    failuresByCause.put(cause, count);
+                }
+            }
+            final long[] counts = latencies.counts();
+            final long maxInMs = latencies.maxInMs();
+            return new TargetMetricsSnapshot(target, successes.get(),
+                    Collections.unmodifiableMap(failuresByCause), transitions.get(),
+                    LatencyHistogram.percentileInMs(counts, 50, maxInMs),
+                    LatencyHistogram.percentileInMs(counts, 95, maxInMs),
+                    LatencyHistogram.percentileInMs(counts, 99, maxInMs), maxInMs);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.denno.internetcheck.observing.metrics;
+
+import com.denno.internetcheck.observing.ProbeTarget;
+
+import java.util.Map;
+
+public final class ProbeMetricsSnapshot {
+    private final int inFlight;
+    private final Map<ProbeTarget, TargetMetricsSnapshot> targets;
+
+    ProbeMetricsSnapshot(final int inFlight,
+                         final Map<ProbeTarget, TargetMetricsSnapshot> targets) {
+        this.inFlight = inFlight;
+        this.targets = targets;
+    }
+
+    // probes started but not finished when the snapshot was taken
+    public int inFlight() {
+        return inFlight;
+    }
+
+    public Map<ProbeTarget, TargetMetricsSnapshot> targets() {
+        return targets;
+    }
+
+    // null when the target has not been probed
+    public TargetMetricsSnapshot target(final ProbeTarget target) {
+        return targets.get(target);
+    }
+
+    public long successes() {
+        long successes = 0;
+        for (TargetMetricsSnapshot target : targets.values()) {
+            successes += target.successes();
+        }
+        return successes;
+    }
+
+    public long failures() {
+        long failures = 0;
+        for (TargetMetricsSnapshot target : targets.values()) {
+            failures += target.failures();
+        }
+        return failures;
+    }
+
+    public long timeouts() {
+        long timeouts = 0;
+        for (TargetMetricsSnapshot target : targets.values()) {
+            timeouts += target.timeouts();
+        }
+        return timeouts;
+    }
+
+    public long transitions() {
+        long transitions = 0;
+        for (TargetMetricsSnapshot target : targets.values()) {
+            transitions += target.transitions();
+        }
+        return transitions;
+    }
+
+    @Override
+    public String toString() {
+        return "ProbeMetricsSnapshot{inFlight=" + inFlight + ", targets=" + targets.values() + '}';
+    }
+}
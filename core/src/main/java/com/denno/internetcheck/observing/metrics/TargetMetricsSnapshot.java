@@ -0,0 +1,110 @@
+package com.denno.internetcheck.observing.metrics;
+
+import com.denno.internetcheck.observing.ProbeTarget;
+
+import java.util.Map;
+
+@SuppressWarnings("PMD") // I want to have the same method names as variable names on purpose
+public final class TargetMetricsSnapshot {
+    private final ProbeTarget target;
+    private final long successes;
+    private final Map<FailureCause, Long> failuresByCause;
+    private final long transitions;
+    private final long p50InMs;
+    private final long p95InMs;
+    private final long p99InMs;
+    private final long maxInMs;
+
+    TargetMetricsSnapshot(final ProbeTarget target, final long successes,
+                          final Map<FailureCause, Long> failuresByCause, final long transitions,
+                          final long p50InMs, final long p95InMs, final long p99InMs,
+                          final long maxInMs) {
+        this.target = target;
+        this.successes = successes;
+        this.failuresByCause = failuresByCause;
+        this.transitions = transitions;
+        this.p50InMs = p50InMs;
+        this.p95InMs = p95InMs;
+        this.p99InMs = p99InMs;
+        this.maxInMs = maxInMs;
+    }
+
+    public ProbeTarget target() {
+        return target;
+    }
+
+    public long successes() {
+        return successes;
+    }
+
+    public long failures() {
+        long failures = 0;
+        for (Long count : failuresByCause.values()) {
+            failures += count;
+        }
+        return failures;
+    }
+
+    // causes without failures are left out
+    public Map<FailureCause, Long> failuresByCause() {
+        return failuresByCause;
+    }
+
+    public long failures(final FailureCause cause) {
+        final Long count = failuresByCause.get(cause);
+        return count != null ? count : 0;
+    }
+
+    public long timeouts() {
+        return failures(FailureCause.TIMEOUT);
+    }
+
+    public double successRate() {
+        final long total = successes + failures();
+        return total > 0 ? (double) successes / total : 0;
+    }
+
+    // changes between reachable and unreachable in consecutive probes
+    public long transitions() {
+        return transitions;
+    }
+
+    // latency percentiles of successful probes, 0 when there were none
+    public long p50InMs() {
+        return p50InMs;
+    }
+
+    public long p95InMs() {
+        return p95InMs;
+    }
+
+    public long p99InMs() {
+        return p99InMs;
+    }
+
+    public long maxInMs() {
+        return maxInMs;
+    }
+
+    @Override
+    public String toString() {
+        return "TargetMetricsSnapshot{"
+                + "target="
+                + target
+                + ", successes="
+                + successes
+                + ", failuresByCause="
+                + failuresByCause
+                + ", transitions="
+                + transitions
+                + ", p50InMs="
+                + p50InMs
+                + ", p95InMs="
+                + p95InMs
+                + ", p99InMs="
+                + p99InMs
+                + ", maxInMs="
+                + maxInMs
+                + '}';
+    }
+}
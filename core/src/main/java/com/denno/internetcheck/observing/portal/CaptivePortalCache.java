@@ -0,0 +1,141 @@
+package com.denno.internetcheck.observing.portal;
+
+import com.denno.internetcheck.Preconditions;
+import com.denno.internetcheck.observing.ProbeResult;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Remembers captive portals per network and probed host, so probes of a host known to be behind
+// a portal are answered from here instead of hitting the portal again, until
+// recheckIntervalInMs has passed. Verdicts are kept only while the current network is known:
+// getDefault() is told about it by ConnectivityMonitor, other instances by networkChanged().
+// Call invalidate() once the user has signed in to have the next probe go out right away.
+public final class CaptivePortalCache {
+    public static final String UNKNOWN_NETWORK = "unknown";
+    private static final long DEFAULT_RECHECK_INTERVAL_IN_MS = 60000;
+    private static final int MAX_PORTALS = 32;
+    private static final CaptivePortalCache DEFAULT =
+            new CaptivePortalCache(DEFAULT_RECHECK_INTERVAL_IN_MS);
+
+    private final Map<Key, Portal> portals =
+            new LinkedHashMap<Key, Portal>(MAX_PORTALS, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, Portal> eldest) {
+                    return size() > MAX_PORTALS;
+                }
+            };
+    private final long recheckIntervalInNanos;
+    private volatile String network = UNKNOWN_NETWORK;
+
+    public CaptivePortalCache(final long recheckIntervalInMs) {
+        Preconditions.checkArgument(recheckIntervalInMs >= 0,
+                "recheckIntervalInMs is not a positive number");
+        this.recheckIntervalInNanos = TimeUnit.MILLISECONDS.toNanos(recheckIntervalInMs);
+    }
+
+    public static CaptivePortalCache getDefault() {
+        return DEFAULT;
+    }
+
+    // any string which stays the same while the device stays on the same network,
+    // null when the network is not known
+    public void networkChanged(final String network) {
+        this.network = network != null ? network : UNKNOWN_NETWORK;
+    }
+
+    public String network() {
+        return network;
+    }
+
+    // the portal verdict for the host on the network while it is recent enough, otherwise null
+    public synchronized ProbeResult cachedVerdict(final String network, final String host) {
+        if (UNKNOWN_NETWORK.equals(network)) {
+            return null;
+        }
+        final Portal portal = portals.get(new Key(network, host));
+        if (portal == null || System.nanoTime() - portal.detectedAt > recheckIntervalInNanos) {
+            return null;
+        }
+        return ProbeResult.builder()
+                .reachable(false)
+                .latencyInMs(0)
+                .httpStatus(portal.httpStatus)
+                .captivePortal(true)
+                .portalUrl(portal.url)
+                .build();
+    }
+
+    // a reachable probe means the user has signed in, failed ones say nothing about the portal
+    public synchronized void update(final String network, final String host,
+                                    final ProbeResult result) {
+        Preconditions.checkNotNull(result, "result == null");
+        if (UNKNOWN_NETWORK.equals(network)) {
+            return;
+        }
+        final Key key = new Key(network, host);
+        if (result.captivePortal()) {
+            portals.put(key, new Portal(result.httpStatus(), result.portalUrl(),
+                    System.nanoTime()));
+        } else if (result.reachable()) {
+            portals.remove(key);
+        }
+    }
+
+    // forgets the portals of the current network
+    public synchronized void invalidate() {
+        final Iterator<Key> keys = portals.keySet().iterator();
+        while (keys.hasNext()) {
+            if (keys.next().network.equals(network)) {
+                keys.remove();
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        portals.clear();
+    }
+
+    private static final class Key {
+        private final String network;
+        private final String host;
+
+        Key(final String network, final String host) {
+            this.network = network;
+            this.host = host;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+
+            Key that = (Key) o;
+
+            return network.equals(that.network) && host.equals(that.host);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * network.hashCode() + host.hashCode();
+        }
+    }
+
+    private static final class Portal {
+        private final int httpStatus;
+        private final String url;
+        private final long detectedAt;
+
+        Portal(final int httpStatus, final String url, final long detectedAt) {
+            this.httpStatus = httpStatus;
+            this.url = url;
+            this.detectedAt = detectedAt;
+        }
+    }
+}
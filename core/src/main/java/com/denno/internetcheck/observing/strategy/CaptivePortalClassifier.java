@@ -0,0 +1,123 @@
+package com.denno.internetcheck.observing.strategy;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Tells a captive portal from a broken endpoint by the response a probe got instead of the
+// expected status: a redirect to another host, 511 Network Authentication Required, or a success
+// status with content where the endpoint serves none. At most MAX_INSPECTED_BYTES of the body
+// are read.
+final class CaptivePortalClassifier {
+    static final int MAX_INSPECTED_BYTES = 2048;
+    private static final int HTTP_NETWORK_AUTHENTICATION_REQUIRED = 511;
+    private static final String LOCATION_HEADER = "Location";
+    private static final String HEAD_METHOD = "HEAD";
+    private static final Charset BODY_CHARSET = Charset.forName("ISO-8859-1");
+    private static final Pattern META_REFRESH_URL = Pattern.compile(
+            "<meta[^>]+http-equiv\\s*=\\s*[\"']?refresh[^>]*url\\s*=\\s*([^\"'>\\s]+)",
+            Pattern.CASE_INSENSITIVE);
+
+    private final boolean captivePortal;
+    private final String portalUrl;
+
+    private CaptivePortalClassifier(final boolean captivePortal, final String portalUrl) {
+        this.captivePortal = captivePortal;
+        this.portalUrl = portalUrl;
+    }
+
+    // HEAD responses have no body, only their headers are inspected
+    static CaptivePortalClassifier classify(final HttpURLConnection urlConnection,
+                                            final int responseCode) {
+        final boolean head = HEAD_METHOD.equals(urlConnection.getRequestMethod());
+        if (responseCode >= HttpURLConnection.HTTP_MULT_CHOICE
+                && responseCode < HttpURLConnection.HTTP_BAD_REQUEST) {
+            final String location = urlConnection.getHeaderField(LOCATION_HEADER);
+            return new CaptivePortalClassifier(redirectsAway(urlConnection, location), location);
+        }
+
+        if (responseCode == HTTP_NETWORK_AUTHENTICATION_REQUIRED) {
+            final String location = urlConnection.getHeaderField(LOCATION_HEADER);
+            final String url = location != null || head ? location
+                    : metaRefreshUrl(readPrefix(urlConnection.getErrorStream()));
+            return new CaptivePortalClassifier(true, url);
+        }
+
+        if (responseCode >= HttpURLConnection.HTTP_OK
+                && responseCode < HttpURLConnection.HTTP_MULT_CHOICE) {
+            if (head) {
+                return new CaptivePortalClassifier(urlConnection.getContentLength() > 0, null);
+            }
+            final String body = readPrefix(inputStreamOf(urlConnection));
+            return new CaptivePortalClassifier(!body.trim().isEmpty(), metaRefreshUrl(body));
+        }
+
+        return new CaptivePortalClassifier(false, null);
+    }
+
+    boolean captivePortal() {
+        return captivePortal;
+    }
+
+    String portalUrl() {
+        return portalUrl;
+    }
+
+    // a redirect within the probed host is the endpoint moving, not a portal taking over
+    private static boolean redirectsAway(final HttpURLConnection urlConnection,
+                                         final String location) {
+        if (location == null) {
+            return false;
+        }
+        final URL probed = urlConnection.getURL();
+        try {
+            return !probed.getHost().equalsIgnoreCase(new URL(probed, location).getHost());
+        } catch (MalformedURLException exception) {
+            return true;
+        }
+    }
+
+    private static InputStream inputStreamOf(final HttpURLConnection urlConnection) {
+        try {
+            return urlConnection.getInputStream();
+        } catch (IOException exception) {
+            return null;
+        }
+    }
+
+    // whatever arrived before a read fails or times out is inspected as well
+    private static String readPrefix(final InputStream body) {
+        if (body == null) {
+            return "";
+        }
+
+        final byte[] buffer = new byte[MAX_INSPECTED_BYTES];
+        int length = 0;
+        try {
+            int read;
+            while (length < buffer.length
+                    && (read = body.read(buffer, length, buffer.length - length)) != -1) {
+                length += read;
+            }
+        } catch (IOException exception) {
+            // the prefix read so far is all there is
+        } finally {
+            try {
+                body.close();
+            } catch (IOException exception) {
+                // nothing left to read from it anyway
+            }
+        }
+        return new String(buffer, 0, length, BODY_CHARSET);
+    }
+
+    private static String metaRefreshUrl(final String body) {
+        final Matcher matcher = META_REFRESH_URL.matcher(body);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+}
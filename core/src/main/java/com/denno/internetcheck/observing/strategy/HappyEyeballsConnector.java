@@ -0,0 +1,207 @@
+package com.denno.internetcheck.observing.strategy;
+
+import com.denno.internetcheck.Preconditions;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Dual-stack connection racing as described in RFC 8305: addresses are tried alternating
+// between IPv6 and IPv4, starting with IPv6, and each next attempt starts after a short delay
+// or right after the previous attempt failed. The first established connection wins.
+// All attempts run on non-blocking channels in the calling thread; the NIO strategy races
+// the same way on its selector loop and reports its connections here.
+//
+// Walled garden probes are not raced. HttpURLConnection resolves and connects on its own, one
+// address after another with the full connect timeout each on Android, and only the first
+// address on the JVM, so a dead IPv6 address costs them the connect timeout. Racing them would
+// take connecting the socket here and speaking HTTP over it, with TLS layered on top and its
+// host name verified by hand, instead of going through HttpURLConnection.
+public final class HappyEyeballsConnector {
+    public static final int DEFAULT_CONNECTION_ATTEMPT_DELAY_IN_MS = 250;
+
+    private final long attemptDelayInNanos;
+    private final AtomicLong ipv6Connections = new AtomicLong();
+    private final AtomicLong ipv4Connections = new AtomicLong();
+    private final AtomicLong ipv4Fallbacks = new AtomicLong();
+
+    public HappyEyeballsConnector() {
+        this(DEFAULT_CONNECTION_ATTEMPT_DELAY_IN_MS);
+    }
+
+    public HappyEyeballsConnector(final int attemptDelayInMs) {
+        Preconditions.checkGreaterThanZero(attemptDelayInMs,
+                "attemptDelayInMs is not a positive number");
+        this.attemptDelayInNanos = TimeUnit.MILLISECONDS.toNanos(attemptDelayInMs);
+    }
+
+    // connections established over IPv6 and IPv4, and IPv4 connections which won
+    // although an IPv6 address was available, which is the cost of a broken IPv6 path
+    public long ipv6Connections() {
+        return ipv6Connections.get();
+    }
+
+    public long ipv4Connections() {
+        return ipv4Connections.get();
+    }
+
+    public long ipv4Fallbacks() {
+        return ipv4Fallbacks.get();
+    }
+
+    long attemptDelayInNanos() {
+        return attemptDelayInNanos;
+    }
+
+    public static boolean isDualStack(final InetAddress[] addresses) {
+        boolean hasIpv6 = false;
+        boolean hasIpv4 = false;
+        for (InetAddress address : addresses) {
+            if (address instanceof Inet6Address) {
+                hasIpv6 = true;
+            } else {
+                hasIpv4 = true;
+            }
+        }
+        return hasIpv6 && hasIpv4;
+    }
+
+    // returns the address the connection was established with, the connection itself is closed
+    public InetAddress connect(final InetAddress[] addresses, final int port,
+                               final int timeoutInMs) throws IOException {
+        final List<InetAddress> ordered = interleave(addresses);
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutInMs);
+        final Selector selector = Selector.open();
+        try {
+            final InetAddress winner = race(selector, ordered, port, deadline);
+            record(winner, ordered.get(0));
+            return winner;
+        } finally {
+            closeAll(selector);
+        }
+    }
+
+    private InetAddress race(final Selector selector, final List<InetAddress> ordered,
+                             final int port, final long deadline) throws IOException {
+        IOException lastFailure = null;
+        int next = 0;
+        int pending = 0;
+        long nextAttemptAt = System.nanoTime();
+
+        while (true) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedIOException("connect interrupted");
+            }
+            final long now = System.nanoTime();
+            if (now - deadline >= 0) {
+                throw new SocketTimeoutException("connect timed out");
+            }
+
+            if (next < ordered.size() && (pending == 0 || now - nextAttemptAt >= 0)) {
+                final InetAddress address = ordered.get(next++);
+                try {
+                    if (startAttempt(selector, address, port)) {
+                        return address;
+                    }
+                    pending++;
+                    nextAttemptAt = now + attemptDelayInNanos;
+                } catch (IOException exception) {
+                    lastFailure = exception;
+                }
+                continue;
+            }
+
+            if (pending == 0) {
+                throw lastFailure != null ? lastFailure : new ConnectException("no address");
+            }
+
+            final long waitUntil = next < ordered.size() && nextAttemptAt - deadline < 0
+                    ? nextAttemptAt : deadline;
+            selector.select(Math.max(1, TimeUnit.NANOSECONDS.toMillis(waitUntil - now)));
+
+            final Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                final SelectionKey key = keys.next();
+                keys.remove();
+                try {
+                    if (((SocketChannel) key.channel()).finishConnect()) {
+                        return (InetAddress) key.attachment();
+                    }
+                } catch (IOException exception) {
+                    lastFailure = exception;
+                    key.cancel();
+                    key.channel().close();
+                    pending--;
+                    // a failed attempt lets the next address start immediately
+                    nextAttemptAt = System.nanoTime();
+                }
+            }
+        }
+    }
+
+    private boolean startAttempt(final Selector selector, final InetAddress address,
+                                 final int port) throws IOException {
+        final SocketChannel channel = SocketChannel.open();
+        try {
+            channel.configureBlocking(false);
+            channel.register(selector, SelectionKey.OP_CONNECT, address);
+            return channel.connect(new InetSocketAddress(address, port));
+        } catch (IOException exception) {
+            channel.close();
+            throw exception;
+        }
+    }
+
+    void record(final InetAddress winner, final InetAddress preferred) {
+        if (winner instanceof Inet6Address) {
+            ipv6Connections.incrementAndGet();
+        } else {
+            ipv4Connections.incrementAndGet();
+            if (preferred instanceof Inet6Address) {
+                ipv4Fallbacks.incrementAndGet();
+            }
+        }
+    }
+
+    private static void closeAll(final Selector selector) throws IOException {
+        for (SelectionKey key : selector.keys()) {
+            key.channel().close();
+        }
+        selector.close();
+    }
+
+    static List<InetAddress> interleave(final InetAddress[] addresses) {
+        final List<InetAddress> ipv6 = new ArrayList<>();
+        final List<InetAddress> ipv4 = new ArrayList<>();
+        for (InetAddress address : addresses) {
+            if (address instanceof Inet6Address) {
+                ipv6.add(address);
+            } else {
+                ipv4.add(address);
+            }
+        }
+
+        final List<InetAddress> ordered = new ArrayList<>(addresses.length);
+        for (int i = 0; i < Math.max(ipv6.size(), ipv4.size()); i++) {
+            if (i < ipv6.size()) {
+                ordered.add(ipv6.get(i));
+            }
+            if (i < ipv4.size()) {
+                ordered.add(ipv4.get(i));
+            }
+        }
+        return ordered;
+    }
+}
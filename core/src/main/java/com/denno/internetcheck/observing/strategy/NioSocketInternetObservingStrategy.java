@@ -0,0 +1,208 @@
+package com.denno.internetcheck.observing.strategy;
+
+import com.jakewharton.nopen.annotation.Open;
+import com.denno.internetcheck.Preconditions;
+import com.denno.internetcheck.observing.InternetObservingSettings;
+import com.denno.internetcheck.observing.ProbeResult;
+import com.denno.internetcheck.observing.dns.ResolverCache;
+import com.denno.internetcheck.observing.error.ErrorHandler;
+import com.denno.internetcheck.observing.event.ProbeEventListener;
+import com.denno.internetcheck.observing.metrics.ProbeMetrics;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Observable;
+import io.reactivex.Single;
+import io.reactivex.SingleEmitter;
+import io.reactivex.SingleOnSubscribe;
+import io.reactivex.SingleSource;
+import io.reactivex.annotations.NonNull;
+import io.reactivex.functions.Cancellable;
+import io.reactivex.functions.Consumer;
+import io.reactivex.functions.Function;
+import io.reactivex.schedulers.Schedulers;
+
+// TCP connect probes on non-blocking socket channels which all share one selector thread,
+// so in-flight probes do not occupy a thread each while they wait for the connect timeout.
+// Only host name resolution, when it misses the resolver cache, still runs on the io scheduler.
+// All addresses of the host are raced as described in HappyEyeballsConnector.
+// Probe results, metrics and events come from the selector loop as well, the blocking socket
+// of the parent strategy is never used.
+@Open
+public class NioSocketInternetObservingStrategy extends SocketInternetObservingStrategy {
+
+    public NioSocketInternetObservingStrategy() {
+        super();
+    }
+
+    public NioSocketInternetObservingStrategy(final ResolverCache resolverCache) {
+        super(resolverCache);
+    }
+
+    @Override
+    public Observable<Boolean> observeInternetConnectivity(final int initialIntervalInMs,
+                                                           final int intervalInMs, final String host, final int port, final int timeoutInMs,
+                                                           final int httpResponse, final ErrorHandler errorHandler) {
+        Preconditions.checkGreaterOrEqualToZero(initialIntervalInMs,
+                "initialIntervalInMs is not a positive number");
+        Preconditions.checkGreaterThanZero(intervalInMs, "intervalInMs is not a positive number");
+        checkGeneralPreconditions(host, port, timeoutInMs, errorHandler);
+
+        final Single<Boolean> probe =
+                probeAsync(adjustHost(host), port, timeoutInMs, errorHandler);
+
+        return Observable.interval(initialIntervalInMs, intervalInMs, TimeUnit.MILLISECONDS,
+                Schedulers.computation())
+                .concatMapSingle(new Function<Long, SingleSource<Boolean>>() {
+                    @Override
+                    public SingleSource<Boolean> apply(@NonNull Long tick) {
+                        return probe;
+                    }
+                }).distinctUntilChanged();
+    }
+
+    @Override
+    public Single<Boolean> checkInternetConnectivity(final String host, final int port,
+                                                     final int timeoutInMs, final int httpResponse, final ErrorHandler errorHandler) {
+        checkGeneralPreconditions(host, port, timeoutInMs, errorHandler);
+        return probeAsync(adjustHost(host), port, timeoutInMs, errorHandler);
+    }
+
+    @Override
+    public Observable<ProbeResult> observeProbeResults(final InternetObservingSettings settings) {
+        Preconditions.checkNotNull(settings, "settings == null");
+        Preconditions.checkGreaterOrEqualToZero(settings.initialInterval(),
+                "initialIntervalInMs is not a positive number");
+        Preconditions.checkGreaterThanZero(settings.interval(),
+                "intervalInMs is not a positive number");
+        checkGeneralPreconditions(settings.host(), settings.port(), settings.timeout(),
+                settings.errorHandler());
+
+        final Single<ProbeResult> probe = ProbeMetrics.measure(
+                probeResult(adjustHost(settings.host()), settings.port(), settings.timeout(),
+                        settings.errorHandler(), settings.eventListener()), settings);
+
+        return Observable.interval(settings.initialInterval(), settings.interval(),
+                TimeUnit.MILLISECONDS, Schedulers.computation())
+                .concatMapSingle(new Function<Long, SingleSource<ProbeResult>>() {
+                    @Override
+                    public SingleSource<ProbeResult> apply(@NonNull Long tick) {
+                        return probe;
+                    }
+                });
+    }
+
+    @Override
+    public Single<ProbeResult> probeInternetConnectivity(
+            final InternetObservingSettings settings) {
+        Preconditions.checkNotNull(settings, "settings == null");
+        checkGeneralPreconditions(settings.host(), settings.port(), settings.timeout(),
+                settings.errorHandler());
+
+        return ProbeMetrics.measure(probeResult(adjustHost(settings.host()), settings.port(),
+                settings.timeout(), settings.errorHandler(), settings.eventListener()), settings);
+    }
+
+    protected Single<Boolean> probeAsync(final String host, final int port,
+                                         final int timeoutInMs, final ErrorHandler errorHandler) {
+        return probeResult(host, port, timeoutInMs, errorHandler, ProbeEventListener.NONE)
+                .map(new Function<ProbeResult, Boolean>() {
+                    @Override
+                    public Boolean apply(@NonNull ProbeResult result) {
+                        return result.reachable();
+                    }
+                });
+    }
+
+    // every subscription is a probe of its own with its own trace and start time
+    protected Single<ProbeResult> probeResult(final String host, final int port,
+                                              final int timeoutInMs,
+                                              final ErrorHandler errorHandler,
+                                              final ProbeEventListener eventListener) {
+        return Single.defer(new Callable<SingleSource<ProbeResult>>() {
+            @Override
+            public SingleSource<ProbeResult> call() {
+                final ProbeTrace trace = ProbeTrace.start(eventListener, host, port);
+                final long start = System.nanoTime();
+                return resolve(host, trace).subscribeOn(Schedulers.io())
+                        .flatMap(new Function<InetAddress[], SingleSource<ProbeResult>>() {
+                            @Override
+                            public SingleSource<ProbeResult> apply(
+                                    @NonNull InetAddress[] addresses) {
+                                return connect(HappyEyeballsConnector.interleave(addresses),
+                                        port, timeoutInMs, start, errorHandler, trace);
+                            }
+                        })
+                        .onErrorReturn(new Function<Throwable, ProbeResult>() {
+                            @Override
+                            public ProbeResult apply(@NonNull Throwable throwable) {
+                                return ProbeResult.unreachable(elapsedInMs(start), throwable);
+                            }
+                        })
+                        .doOnSuccess(new Consumer<ProbeResult>() {
+                            @Override
+                            public void accept(ProbeResult result) {
+                                trace.probeEnd(result);
+                            }
+                        });
+            }
+        });
+    }
+
+    private void checkGeneralPreconditions(String host, int port, int timeoutInMs,
+                                           ErrorHandler errorHandler) {
+        Preconditions.checkNotNullOrEmpty(host, "host is null or empty");
+        Preconditions.checkGreaterThanZero(port, "port is not a positive number");
+        Preconditions.checkGreaterThanZero(timeoutInMs, "timeoutInMs is not a positive number");
+        Preconditions.checkNotNull(errorHandler, "errorHandler is null");
+    }
+
+    private Single<InetAddress[]> resolve(final String host, final ProbeTrace trace) {
+        return Single.fromCallable(new Callable<InetAddress[]>() {
+            @Override
+            public InetAddress[] call() throws UnknownHostException {
+                trace.dnsStart(host);
+                final InetAddress[] addresses = resolverCache().resolveAll(host);
+                trace.dnsEnd(host, addresses);
+                return addresses;
+            }
+        });
+    }
+
+    private Single<ProbeResult> connect(final List<InetAddress> addresses, final int port,
+                                        final int timeoutInMs, final long start,
+                                        final ErrorHandler errorHandler,
+                                        final ProbeTrace trace) {
+        return Single.create(new SingleOnSubscribe<ProbeResult>() {
+            @Override
+            public void subscribe(@NonNull SingleEmitter<ProbeResult> emitter) {
+                final SelectorProbeLoop loop;
+                try {
+                    loop = SelectorProbeLoop.getInstance();
+                } catch (IOException exception) {
+                    errorHandler.handleError(exception, "Could not open the probe selector");
+                    emitter.onSuccess(ProbeResult.unreachable(elapsedInMs(start), exception));
+                    return;
+                }
+
+                final SelectorProbeLoop.Probe probe = loop.submit(addresses, port, timeoutInMs,
+                        start, happyEyeballsConnector(), errorHandler, trace, emitter);
+                emitter.setCancellable(new Cancellable() {
+                    @Override
+                    public void cancel() {
+                        loop.cancel(probe);
+                    }
+                });
+            }
+        });
+    }
+
+    private static long elapsedInMs(final long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+}
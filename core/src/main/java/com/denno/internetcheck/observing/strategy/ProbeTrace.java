@@ -0,0 +1,93 @@
+package com.denno.internetcheck.observing.strategy;
+
+import com.denno.internetcheck.observing.ProbeResult;
+import com.denno.internetcheck.observing.ProbeTarget;
+import com.denno.internetcheck.observing.event.ProbeEventListener;
+
+import java.net.InetAddress;
+
+// Reports the events of one probe to a ProbeEventListener. The trace of ProbeEventListener.NONE
+// is shared and does nothing, so untraced probes neither allocate nor read the clock.
+final class ProbeTrace {
+    static final ProbeTrace NONE = new ProbeTrace(ProbeEventListener.NONE, 0);
+
+    private final ProbeEventListener listener;
+    private final long probeId;
+    // set by connectStart and cleared by connectEnd, TLS sockets report the end on their own
+    private boolean connecting;
+
+    private ProbeTrace(final ProbeEventListener listener, final long probeId) {
+        this.listener = listener;
+        this.probeId = probeId;
+    }
+
+    static ProbeTrace start(final ProbeEventListener listener, final String host,
+                            final int port) {
+        if (listener == null || listener == ProbeEventListener.NONE) {
+            return NONE;
+        }
+        final ProbeTrace trace = new ProbeTrace(listener, ProbeEventListener.nextProbeId());
+        listener.probeStart(trace.probeId, ProbeTarget.create(host, port), System.nanoTime());
+        return trace;
+    }
+
+    boolean enabled() {
+        return this != NONE;
+    }
+
+    void dnsStart(final String host) {
+        if (enabled()) {
+            listener.dnsStart(probeId, host, System.nanoTime());
+        }
+    }
+
+    void dnsEnd(final String host, final InetAddress[] addresses) {
+        if (enabled()) {
+            listener.dnsEnd(probeId, host, addresses, System.nanoTime());
+        }
+    }
+
+    void connectStart() {
+        if (enabled()) {
+            connecting = true;
+            listener.connectStart(probeId, System.nanoTime());
+        }
+    }
+
+    // reported once per connectStart, later calls are ignored
+    void connectEnd() {
+        if (enabled() && connecting) {
+            connecting = false;
+            listener.connectEnd(probeId, System.nanoTime());
+        }
+    }
+
+    void secureConnectStart() {
+        if (enabled()) {
+            listener.secureConnectStart(probeId, System.nanoTime());
+        }
+    }
+
+    void secureConnectEnd() {
+        if (enabled()) {
+            listener.secureConnectEnd(probeId, System.nanoTime());
+        }
+    }
+
+    void responseHeaders(final int httpStatus) {
+        if (enabled()) {
+            listener.responseHeaders(probeId, httpStatus, System.nanoTime());
+        }
+    }
+
+    void probeEnd(final ProbeResult result) {
+        if (!enabled()) {
+            return;
+        }
+        if (result.failure() != null) {
+            listener.probeFailed(probeId, result.failure(), System.nanoTime());
+        } else {
+            listener.probeEnd(probeId, result, System.nanoTime());
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.denno.internetcheck.observing.strategy;
+
+import com.jakewharton.nopen.annotation.Open;
+import com.denno.internetcheck.Preconditions;
+import com.denno.internetcheck.observing.InternetObservingSettings;
+import com.denno.internetcheck.observing.InternetObservingStrategy;
+import com.denno.internetcheck.observing.InternetProbingStrategy;
+import com.denno.internetcheck.observing.ProbeResult;
+import com.denno.internetcheck.observing.ProbeTarget;
+import com.denno.internetcheck.observing.error.ErrorHandler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Observable;
+import io.reactivex.Single;
+import io.reactivex.SingleSource;
+import io.reactivex.annotations.NonNull;
+import io.reactivex.functions.BiFunction;
+import io.reactivex.functions.Function;
+import io.reactivex.functions.Predicate;
+import io.reactivex.schedulers.Schedulers;
+
+// Probes the configured host and the additional targets in parallel and reports a connection
+// only when at least `quorum` of them answer, so a single degraded endpoint can not flip
+// the result. Probing stops as soon as the outcome is decided either way. Metrics and events
+// are those of the delegate, per target.
+@Open
+public class QuorumInternetObservingStrategy implements InternetProbingStrategy {
+    private static final long PROBE_TIMEOUT_FACTOR = 2;
+
+    private final InternetObservingStrategy delegate;
+    private final List<ProbeTarget> targets;
+    private final int quorum;
+
+    public QuorumInternetObservingStrategy(final List<ProbeTarget> targets, final int quorum) {
+        this(new WalledGardenInternetObservingStrategy(), targets, quorum);
+    }
+
+    public QuorumInternetObservingStrategy(final InternetObservingStrategy delegate,
+                                           final List<ProbeTarget> targets, final int quorum) {
+        Preconditions.checkNotNull(delegate, "delegate == null");
+        Preconditions.checkGreaterThanZero(quorum, "quorum is not a positive number");
+        this.delegate = delegate;
+        this.targets = Collections.unmodifiableList(ProbeTarget.distinct(targets));
+        Preconditions.checkArgument(quorum <= this.targets.size() + 1,
+                "quorum is greater than the number of targets");
+        this.quorum = quorum;
+    }
+
+    public List<ProbeTarget> targets() {
+        return targets;
+    }
+
+    public int quorum() {
+        return quorum;
+    }
+
+    @Override
+    public String getDefaultPingHost() {
+        return delegate.getDefaultPingHost();
+    }
+
+    @Override
+    public Observable<Boolean> observeInternetConnectivity(final int initialIntervalInMs,
+                                                           final int intervalInMs, final String host, final int port, final int timeoutInMs,
+                                                           final int httpResponse, final ErrorHandler errorHandler) {
+        Preconditions.checkGreaterOrEqualToZero(initialIntervalInMs,
+                "initialIntervalInMs is not a positive number");
+        Preconditions.checkGreaterThanZero(intervalInMs, "intervalInMs is not a positive number");
+
+        final Single<Boolean> vote =
+                checkInternetConnectivity(host, port, timeoutInMs, httpResponse, errorHandler);
+
+        return Observable.interval(initialIntervalInMs, intervalInMs, TimeUnit.MILLISECONDS,
+                Schedulers.io())
+                .concatMapSingle(new Function<Long, SingleSource<Boolean>>() {
+                    @Override
+                    public SingleSource<Boolean> apply(@NonNull Long tick) {
+                        return vote;
+                    }
+                }).distinctUntilChanged();
+    }
+
+    @Override
+    public Single<Boolean> checkInternetConnectivity(final String host, final int port,
+                                                     final int timeoutInMs, final int httpResponse, final ErrorHandler errorHandler) {
+        Preconditions.checkNotNullOrEmpty(host, "host is null or empty");
+        Preconditions.checkGreaterThanZero(port, "port is not a positive number");
+        Preconditions.checkGreaterThanZero(timeoutInMs, "timeoutInMs is not a positive number");
+        Preconditions.checkNotNull(errorHandler, "errorHandler is null");
+
+        final List<Single<ProbeResult>> probes = new ArrayList<>();
+        for (ProbeTarget target : distinctTargets(host, port)) {
+            probes.add(bounded(TargetProbe.check(delegate, target, timeoutInMs, httpResponse,
+                    errorHandler), target.timeoutInMs(timeoutInMs)));
+        }
+        return vote(probes).map(TargetProbe.REACHABLE);
+    }
+
+    @Override
+    public Observable<ProbeResult> observeProbeResults(final InternetObservingSettings settings) {
+        Preconditions.checkNotNull(settings, "settings == null");
+        Preconditions.checkGreaterOrEqualToZero(settings.initialInterval(),
+                "initialIntervalInMs is not a positive number");
+        Preconditions.checkGreaterThanZero(settings.interval(),
+                "intervalInMs is not a positive number");
+
+        final Single<ProbeResult> vote = probeInternetConnectivity(settings);
+
+        return Observable.interval(settings.initialInterval(), settings.interval(),
+                TimeUnit.MILLISECONDS, Schedulers.io())
+                .concatMapSingle(new Function<Long, SingleSource<ProbeResult>>() {
+                    @Override
+                    public SingleSource<ProbeResult> apply(@NonNull Long tick) {
+                        return vote;
+                    }
+                });
+    }
+
+    // reachable when the quorum is met, with the time it took to decide either way
+    @Override
+    public Single<ProbeResult> probeInternetConnectivity(
+            final InternetObservingSettings settings) {
+        Preconditions.checkNotNull(settings, "settings == null");
+        Preconditions.checkNotNullOrEmpty(settings.host(), "host is null or empty");
+        Preconditions.checkGreaterThanZero(settings.port(), "port is not a positive number");
+        Preconditions.checkGreaterThanZero(settings.timeout(),
+                "timeoutInMs is not a positive number");
+
+        final List<Single<ProbeResult>> probes = new ArrayList<>();
+        for (ProbeTarget target : distinctTargets(settings.host(), settings.port())) {
+            probes.add(bounded(TargetProbe.probe(delegate, settings, target),
+                    target.timeoutInMs(settings.timeout())));
+        }
+        return vote(probes);
+    }
+
+    // a host which is one of the targets as well would otherwise vote twice
+    private List<ProbeTarget> distinctTargets(final String host, final int port) {
+        final List<ProbeTarget> all = ProbeTarget.withPrimary(host, port, targets);
+        Preconditions.checkArgument(quorum <= all.size(),
+                "quorum is greater than the number of distinct targets");
+        return all;
+    }
+
+    // the delegate bounds connecting and reading by the timeout of the target each, but not
+    // host name resolution; this bound only catches probes hanging beyond both
+    private static Single<ProbeResult> bounded(final Single<ProbeResult> probe,
+                                               final int timeoutInMs) {
+        final long probeTimeoutInMs = PROBE_TIMEOUT_FACTOR * timeoutInMs;
+        return probe.timeout(probeTimeoutInMs, TimeUnit.MILLISECONDS,
+                Single.just(ProbeResult.unreachable(probeTimeoutInMs, null)));
+    }
+
+    private Single<ProbeResult> vote(final List<Single<ProbeResult>> probes) {
+        final int total = probes.size();
+
+        return Single.defer(new Callable<SingleSource<ProbeResult>>() {
+            @Override
+            public SingleSource<ProbeResult> call() {
+                final long start = System.nanoTime();
+                final List<Observable<ProbeResult>> started = new ArrayList<>(total);
+                for (Single<ProbeResult> probe : probes) {
+                    started.add(probe.subscribeOn(Schedulers.io()).toObservable());
+                }
+
+                return Observable.merge(started).scanWith(new Callable<Tally>() {
+                    @Override
+                    public Tally call() {
+                        return Tally.EMPTY;
+                    }
+                }, new BiFunction<Tally, ProbeResult, Tally>() {
+                    @Override
+                    public Tally apply(@NonNull Tally tally, @NonNull ProbeResult result) {
+                        return tally.add(result.reachable());
+                    }
+                }).filter(new Predicate<Tally>() {
+                    @Override
+                    public boolean test(@NonNull Tally tally) {
+                        return tally.isDecided(quorum, total);
+                    }
+                }).map(new Function<Tally, ProbeResult>() {
+                    @Override
+                    public ProbeResult apply(@NonNull Tally tally) {
+                        final long elapsedInMs =
+                                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                        return tally.successes >= quorum ? ProbeResult.reachable(elapsedInMs)
+                                : ProbeResult.unreachable(elapsedInMs, null);
+                    }
+                }).first(ProbeResult.unreachable(ProbeResult.NOT_MEASURED, null));
+            }
+        });
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        QuorumInternetObservingStrategy that = (QuorumInternetObservingStrategy) o;
+
+        return quorum == that.quorum
+                && delegate.equals(that.delegate)
+                && targets.equals(that.targets);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = delegate.hashCode();
+        result = 31 * result + targets.hashCode();
+        result = 31 * result + quorum;
+        return result;
+    }
+
+    private static final class Tally {
+        static final Tally EMPTY = new Tally(0, 0);
+
+        final int successes;
+        final int failures;
+
+        Tally(final int successes, final int failures) {
+            this.successes = successes;
+            this.failures = failures;
+        }
+
+        Tally add(final boolean connected) {
+            return connected ? new Tally(successes + 1, failures)
+                    : new Tally(successes, failures + 1);
+        }
+
+        boolean isDecided(final int required, final int total) {
+            return successes >= required || failures > total - required;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.denno.internetcheck.observing.strategy;
+
+import com.jakewharton.nopen.annotation.Open;
+import com.denno.internetcheck.Preconditions;
+import com.denno.internetcheck.observing.InternetObservingSettings;
+import com.denno.internetcheck.observing.InternetObservingStrategy;
+import com.denno.internetcheck.observing.InternetProbingStrategy;
+import com.denno.internetcheck.observing.ProbeResult;
+import com.denno.internetcheck.observing.ProbeTarget;
+import com.denno.internetcheck.observing.error.ErrorHandler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Observable;
+import io.reactivex.Single;
+import io.reactivex.SingleSource;
+import io.reactivex.annotations.NonNull;
+import io.reactivex.functions.Function;
+import io.reactivex.functions.Predicate;
+import io.reactivex.schedulers.Schedulers;
+
+// Probes the configured host together with a list of alternative targets and reports
+// a connection as soon as any of them answers. Remaining probes are disposed then, although
+// blocking delegates still run until their own timeout in the background. Probe results,
+// metrics and events are those of the delegate, per target.
+@Open
+public class RacingInternetObservingStrategy implements InternetProbingStrategy {
+    private final InternetObservingStrategy delegate;
+    private final List<ProbeTarget> targets;
+    private final int staggerInMs;
+
+    public RacingInternetObservingStrategy(final List<ProbeTarget> targets) {
+        this(new WalledGardenInternetObservingStrategy(), targets, 0);
+    }
+
+    // staggerInMs delays the start of each next target, so healthy networks rarely need
+    // more than the first probe
+    public RacingInternetObservingStrategy(final InternetObservingStrategy delegate,
+                                           final List<ProbeTarget> targets,
+                                           final int staggerInMs) {
+        Preconditions.checkNotNull(delegate, "delegate == null");
+        Preconditions.checkNotNull(targets, "targets == null");
+        Preconditions.checkGreaterOrEqualToZero(staggerInMs,
+                "staggerInMs is not a positive number");
+        this.delegate = delegate;
+        this.targets = Collections.unmodifiableList(ProbeTarget.distinct(targets));
+        this.staggerInMs = staggerInMs;
+    }
+
+    public List<ProbeTarget> targets() {
+        return targets;
+    }
+
+    @Override
+    public String getDefaultPingHost() {
+        return delegate.getDefaultPingHost();
+    }
+
+    @Override
+    public Observable<Boolean> observeInternetConnectivity(final int initialIntervalInMs,
+                                                           final int intervalInMs, final String host, final int port, final int timeoutInMs,
+                                                           final int httpResponse, final ErrorHandler errorHandler) {
+        Preconditions.checkGreaterOrEqualToZero(initialIntervalInMs,
+                "initialIntervalInMs is not a positive number");
+        Preconditions.checkGreaterThanZero(intervalInMs, "intervalInMs is not a positive number");
+
+        final Single<Boolean> race =
+                checkInternetConnectivity(host, port, timeoutInMs, httpResponse, errorHandler);
+
+        return Observable.interval(initialIntervalInMs, intervalInMs, TimeUnit.MILLISECONDS,
+                Schedulers.io())
+                .concatMapSingle(new Function<Long, SingleSource<Boolean>>() {
+                    @Override
+                    public SingleSource<Boolean> apply(@NonNull Long tick) {
+                        return race;
+                    }
+                }).distinctUntilChanged();
+    }
+
+    @Override
+    public Single<Boolean> checkInternetConnectivity(final String host, final int port,
+                                                     final int timeoutInMs, final int httpResponse, final ErrorHandler errorHandler) {
+        Preconditions.checkNotNullOrEmpty(host, "host is null or empty");
+        Preconditions.checkGreaterThanZero(port, "port is not a positive number");
+        Preconditions.checkGreaterThanZero(timeoutInMs, "timeoutInMs is not a positive number");
+        Preconditions.checkNotNull(errorHandler, "errorHandler is null");
+
+        final List<Single<ProbeResult>> probes = new ArrayList<>();
+        for (ProbeTarget target : ProbeTarget.withPrimary(host, port, targets)) {
+            probes.add(TargetProbe.check(delegate, target, timeoutInMs, httpResponse,
+                    errorHandler));
+        }
+        return race(probes).map(TargetProbe.REACHABLE);
+    }
+
+    @Override
+    public Observable<ProbeResult> observeProbeResults(final InternetObservingSettings settings) {
+        Preconditions.checkNotNull(settings, "settings == null");
+        Preconditions.checkGreaterOrEqualToZero(settings.initialInterval(),
+                "initialIntervalInMs is not a positive number");
+        Preconditions.checkGreaterThanZero(settings.interval(),
+                "intervalInMs is not a positive number");
+
+        final Single<ProbeResult> race = probeInternetConnectivity(settings);
+
+        return Observable.interval(settings.initialInterval(), settings.interval(),
+                TimeUnit.MILLISECONDS, Schedulers.io())
+                .concatMapSingle(new Function<Long, SingleSource<ProbeResult>>() {
+                    @Override
+                    public SingleSource<ProbeResult> apply(@NonNull Long tick) {
+                        return race;
+                    }
+                });
+    }
+
+    // the result of the first target to answer, or an unreachable one
+    @Override
+    public Single<ProbeResult> probeInternetConnectivity(
+            final InternetObservingSettings settings) {
+        Preconditions.checkNotNull(settings, "settings == null");
+        Preconditions.checkNotNullOrEmpty(settings.host(), "host is null or empty");
+        Preconditions.checkGreaterThanZero(settings.port(), "port is not a positive number");
+
+        final List<Single<ProbeResult>> probes = new ArrayList<>();
+        for (ProbeTarget target : ProbeTarget.withPrimary(settings.host(), settings.port(),
+                targets)) {
+            probes.add(TargetProbe.probe(delegate, settings, target));
+        }
+        return race(probes);
+    }
+
+    private Single<ProbeResult> race(final List<Single<ProbeResult>> probes) {
+        return Single.defer(new Callable<SingleSource<ProbeResult>>() {
+            @Override
+            public SingleSource<ProbeResult> call() {
+                final long start = System.nanoTime();
+                final List<Observable<ProbeResult>> started = new ArrayList<>(probes.size());
+                for (int i = 0; i < probes.size(); i++) {
+                    Single<ProbeResult> probe = probes.get(i).subscribeOn(Schedulers.io());
+                    if (i > 0 && staggerInMs > 0) {
+                        probe = probe.delaySubscription((long) i * staggerInMs,
+                                TimeUnit.MILLISECONDS);
+                    }
+                    started.add(probe.toObservable());
+                }
+
+                return Observable.merge(started).filter(new Predicate<ProbeResult>() {
+                    @Override
+                    public boolean test(@NonNull ProbeResult result) {
+                        return result.reachable();
+                    }
+                }).firstElement().switchIfEmpty(Single.fromCallable(new Callable<ProbeResult>() {
+                    @Override
+                    public ProbeResult call() {
+                        return ProbeResult.unreachable(elapsedInMs(start), null);
+                    }
+                }));
+            }
+        });
+    }
+
+    private static long elapsedInMs(final long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        RacingInternetObservingStrategy that = (RacingInternetObservingStrategy) o;
+
+        return staggerInMs == that.staggerInMs
+                && delegate.equals(that.delegate)
+                && targets.equals(that.targets);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = delegate.hashCode();
+        result = 31 * result + targets.hashCode();
+        result = 31 * result + staggerInMs;
+        return result;
+    }
+}
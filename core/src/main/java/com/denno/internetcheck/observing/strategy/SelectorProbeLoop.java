@@ -0,0 +1,410 @@
+package com.denno.internetcheck.observing.strategy;
+
+import com.denno.internetcheck.observing.ProbeResult;
+import com.denno.internetcheck.observing.error.ErrorHandler;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import io.reactivex.SingleEmitter;
+import io.reactivex.schedulers.Schedulers;
+
+// Single thread event loop which multiplexes non-blocking TCP connect probes on one Selector.
+// A probe races the addresses of its host like HappyEyeballsConnector does: the next address
+// starts after the attempt delay or as soon as the previous attempt fails, the first
+// established connection wins. Timeouts are kept in a hashed timer wheel, so scheduling and
+// expiring a probe costs O(1) regardless of how many probes are in flight. Results are emitted
+// on the io scheduler, so downstream work never stalls the loop. Should the loop thread die
+// anyway, its pending probes fail and the next probe starts a new loop.
+final class SelectorProbeLoop implements Runnable {
+    private static final String THREAD_NAME = "ConnectivityCheck-selector";
+    private static final int TICK_IN_MS = 10;
+    private static final int WHEEL_SIZE = 512;
+
+    private static SelectorProbeLoop instance;
+
+    private final Queue<Probe> submitted = new ConcurrentLinkedQueue<>();
+    private final Queue<Probe> cancelled = new ConcurrentLinkedQueue<>();
+    private final TimerWheel timerWheel = new TimerWheel(TICK_IN_MS, WHEEL_SIZE);
+    // probes waiting for the attempt delay before their next address is tried
+    private final List<Probe> staggered = new ArrayList<>();
+    private final Selector selector;
+    private volatile boolean closed;
+
+    private SelectorProbeLoop(final Selector selector) {
+        this.selector = selector;
+    }
+
+    static synchronized SelectorProbeLoop getInstance() throws IOException {
+        if (instance == null) {
+            final SelectorProbeLoop loop = new SelectorProbeLoop(Selector.open());
+            final Thread thread = new Thread(loop, THREAD_NAME);
+            thread.setDaemon(true);
+            thread.start();
+            instance = loop;
+        }
+        return instance;
+    }
+
+    // addresses are tried in the given order, start is when the probe began, before its host
+    // name was resolved
+    Probe submit(final List<InetAddress> addresses, final int port, final int timeoutInMs,
+                 final long start, final HappyEyeballsConnector connector,
+                 final ErrorHandler errorHandler, final ProbeTrace trace,
+                 final SingleEmitter<ProbeResult> emitter) {
+        final Probe probe = new Probe(addresses, port, timeoutInMs, start, connector,
+                errorHandler, trace, emitter);
+        submitted.offer(probe);
+        if (closed) {
+            failSubmittedProbes();
+        } else {
+            selector.wakeup();
+        }
+        return probe;
+    }
+
+    void cancel(final Probe probe) {
+        if (probe.isDone()) {
+            return;
+        }
+        cancelled.offer(probe);
+        selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (true) {
+                try {
+                    registerSubmittedProbes();
+                    closeCancelledProbes();
+                    selector.select(timerWheel.isEmpty() ? 0 : TICK_IN_MS);
+                    finishConnectedProbes();
+                    startStaggeredAttempts(System.nanoTime());
+                    timerWheel.expire(System.nanoTime());
+                } catch (IOException exception) {
+                    // a failing select leaves the registered probes to expire through the wheel
+                    timerWheel.expire(System.nanoTime());
+                }
+            }
+        } finally {
+            shutDown();
+        }
+    }
+
+    private void shutDown() {
+        synchronized (SelectorProbeLoop.class) {
+            if (instance == this) {
+                instance = null;
+            }
+        }
+        closed = true;
+        if (selector.isOpen()) {
+            for (SelectionKey key : selector.keys()) {
+                ((Attempt) key.attachment()).probe.failed(new IOException("probe loop stopped"));
+            }
+            try {
+                selector.close();
+            } catch (IOException exception) {
+                // the loop is gone either way
+            }
+        }
+        failSubmittedProbes();
+    }
+
+    private void failSubmittedProbes() {
+        Probe probe;
+        while ((probe = submitted.poll()) != null) {
+            probe.failed(new IOException("probe loop stopped"));
+        }
+    }
+
+    private void registerSubmittedProbes() {
+        Probe probe;
+        while ((probe = submitted.poll()) != null) {
+            try {
+                probe.connectStart = System.nanoTime();
+                probe.trace.connectStart();
+                timerWheel.schedule(probe, probe.connectStart);
+                startNextAttempt(probe);
+            } catch (RuntimeException exception) {
+                probe.crashed(exception);
+            }
+        }
+    }
+
+    // addresses failing right away are skipped until one attempt is pending or connected
+    private void startNextAttempt(final Probe probe) {
+        if (probe.isDone()) {
+            return;
+        }
+        while (probe.nextAddress < probe.addresses.size()) {
+            final InetAddress address = probe.addresses.get(probe.nextAddress++);
+            SocketChannel channel = null;
+            try {
+                channel = SocketChannel.open();
+                channel.configureBlocking(false);
+                if (channel.connect(new InetSocketAddress(address, probe.port))) {
+                    probe.channels.add(channel);
+                    probe.connected(address);
+                    return;
+                }
+                channel.register(selector, SelectionKey.OP_CONNECT, new Attempt(probe, address));
+                probe.channels.add(channel);
+                probe.pendingAttempts++;
+                probe.nextAttemptAt = System.nanoTime() + probe.connector.attemptDelayInNanos();
+                if (probe.nextAddress < probe.addresses.size()) {
+                    staggered.add(probe);
+                }
+                return;
+            } catch (IOException exception) {
+                probe.lastFailure = exception;
+                probe.closeChannel(channel);
+            }
+        }
+
+        if (probe.pendingAttempts == 0) {
+            probe.failed(probe.lastFailure);
+        }
+    }
+
+    private void startStaggeredAttempts(final long now) {
+        if (staggered.isEmpty()) {
+            return;
+        }
+        final List<Probe> due = new ArrayList<>();
+        final Iterator<Probe> probes = staggered.iterator();
+        while (probes.hasNext()) {
+            final Probe probe = probes.next();
+            if (probe.isDone()) {
+                probes.remove();
+            } else if (now - probe.nextAttemptAt >= 0) {
+                probes.remove();
+                due.add(probe);
+            }
+        }
+        for (Probe probe : due) {
+            try {
+                startNextAttempt(probe);
+            } catch (RuntimeException exception) {
+                probe.crashed(exception);
+            }
+        }
+    }
+
+    private void closeCancelledProbes() {
+        Probe probe;
+        while ((probe = cancelled.poll()) != null) {
+            probe.close();
+        }
+    }
+
+    private void finishConnectedProbes() {
+        final Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+            final SelectionKey key = keys.next();
+            keys.remove();
+            if (!key.isValid()) {
+                continue;
+            }
+            final Attempt attempt = (Attempt) key.attachment();
+            final Probe probe = attempt.probe;
+            final SocketChannel channel = (SocketChannel) key.channel();
+            try {
+                if (channel.finishConnect()) {
+                    probe.connected(attempt.address);
+                }
+            } catch (IOException exception) {
+                probe.lastFailure = exception;
+                probe.pendingAttempts--;
+                probe.closeChannel(channel);
+                // a failed attempt lets the next address start immediately
+                staggered.remove(probe);
+                startNextAttempt(probe);
+            } catch (RuntimeException exception) {
+                probe.crashed(exception);
+            }
+        }
+    }
+
+    private static final class Attempt {
+        private final Probe probe;
+        private final InetAddress address;
+
+        Attempt(final Probe probe, final InetAddress address) {
+            this.probe = probe;
+            this.address = address;
+        }
+    }
+
+    // connect time is measured from the start of the first attempt, latency from the start of
+    // the probe; everything but done is only touched by the loop thread
+    static final class Probe {
+        private final List<InetAddress> addresses;
+        private final int port;
+        private final int timeoutInMs;
+        private final long start;
+        private final HappyEyeballsConnector connector;
+        private final ErrorHandler errorHandler;
+        private final ProbeTrace trace;
+        private final SingleEmitter<ProbeResult> emitter;
+        private final AtomicBoolean done = new AtomicBoolean();
+        private final List<SocketChannel> channels = new ArrayList<>();
+        private int nextAddress;
+        private int pendingAttempts;
+        private long nextAttemptAt;
+        private Exception lastFailure = new ConnectException("no address");
+        private long connectStart;
+        private long deadline;
+
+        Probe(final List<InetAddress> addresses, final int port, final int timeoutInMs,
+              final long start, final HappyEyeballsConnector connector,
+              final ErrorHandler errorHandler, final ProbeTrace trace,
+              final SingleEmitter<ProbeResult> emitter) {
+            this.addresses = addresses;
+            this.port = port;
+            this.timeoutInMs = timeoutInMs;
+            this.start = start;
+            this.connector = connector;
+            this.errorHandler = errorHandler;
+            this.trace = trace;
+            this.emitter = emitter;
+        }
+
+        boolean isDone() {
+            return done.get();
+        }
+
+        void connected(final InetAddress winner) {
+            trace.connectEnd();
+            connector.record(winner, addresses.get(0));
+            complete(ProbeResult.builder()
+                    .reachable(true)
+                    .latencyInMs(elapsedInMs(start))
+                    .connectTimeInMs(elapsedInMs(connectStart))
+                    .remoteAddress(winner)
+                    .build());
+        }
+
+        void failed(final Exception exception) {
+            complete(ProbeResult.unreachable(elapsedInMs(start), exception));
+        }
+
+        // an unexpected failure of one probe must not take the loop and the other probes down
+        void crashed(final RuntimeException exception) {
+            errorHandler.handleError(exception, "Could not probe " + addresses + ":" + port);
+            failed(exception);
+        }
+
+        private void complete(final ProbeResult result) {
+            if (!done.compareAndSet(false, true)) {
+                return;
+            }
+            closeChannels();
+            Schedulers.io().scheduleDirect(new Runnable() {
+                @Override
+                public void run() {
+                    emitter.onSuccess(result);
+                }
+            });
+        }
+
+        private static long elapsedInMs(final long start) {
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        }
+
+        void close() {
+            done.set(true);
+            closeChannels();
+        }
+
+        private void closeChannels() {
+            for (SocketChannel channel : channels) {
+                closeChannel(channel);
+            }
+        }
+
+        private void closeChannel(final SocketChannel channel) {
+            if (channel == null) {
+                return;
+            }
+            try {
+                channel.close();
+            } catch (IOException exception) {
+                errorHandler.handleError(exception, "Could not close the socket channel");
+            }
+        }
+    }
+
+    // hashed timer wheel; a bucket keeps the probes whose deadline falls into its tick, probes
+    // with a timeout longer than one revolution stay in the bucket until their deadline passes
+    private static final class TimerWheel {
+        private final long tickInNanos;
+        private final long startTime = System.nanoTime();
+        private final List<List<Probe>> buckets;
+        private long lastTick = -1;
+        private int size;
+
+        TimerWheel(final int tickInMs, final int wheelSize) {
+            this.tickInNanos = TimeUnit.MILLISECONDS.toNanos(tickInMs);
+            this.buckets = new ArrayList<>(wheelSize);
+            for (int i = 0; i < wheelSize; i++) {
+                buckets.add(new ArrayList<Probe>());
+            }
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void schedule(final Probe probe, final long now) {
+            probe.deadline = now + TimeUnit.MILLISECONDS.toNanos(probe.timeoutInMs);
+            final long tick = (probe.deadline - startTime) / tickInNanos + 1;
+            if (lastTick < 0) {
+                lastTick = (now - startTime) / tickInNanos;
+            }
+            buckets.get((int) (tick % buckets.size())).add(probe);
+            size++;
+        }
+
+        void expire(final long now) {
+            if (lastTick < 0) {
+                return;
+            }
+            final long currentTick = (now - startTime) / tickInNanos;
+            final long lastExpiringTick = Math.min(currentTick, lastTick + buckets.size());
+            for (long tick = lastTick + 1; tick <= lastExpiringTick; tick++) {
+                expireBucket(buckets.get((int) (tick % buckets.size())), now);
+            }
+            lastTick = currentTick;
+        }
+
+        private void expireBucket(final List<Probe> bucket, final long now) {
+            final Iterator<Probe> probes = bucket.iterator();
+            while (probes.hasNext()) {
+                final Probe probe = probes.next();
+                if (probe.isDone()) {
+                    probes.remove();
+                    size--;
+                } else if (probe.deadline <= now) {
+                    probes.remove();
+                    size--;
+                    probe.failed(new SocketTimeoutException("connect timed out"));
+                }
+            }
+        }
+    }
+}
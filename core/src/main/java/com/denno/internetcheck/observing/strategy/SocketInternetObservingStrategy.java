@@ -0,0 +1,265 @@
+package com.denno.internetcheck.observing.strategy;
+
+import com.jakewharton.nopen.annotation.Open;
+import com.denno.internetcheck.Preconditions;
+import com.denno.internetcheck.observing.InternetObservingSettings;
+import com.denno.internetcheck.observing.InternetProbingStrategy;
+import com.denno.internetcheck.observing.ProbeResult;
+import com.denno.internetcheck.observing.dns.ResolverCache;
+import com.denno.internetcheck.observing.error.ErrorHandler;
+import com.denno.internetcheck.observing.event.ProbeEventListener;
+import com.denno.internetcheck.observing.metrics.ProbeMetrics;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.UnknownHostException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Observable;
+import io.reactivex.Single;
+import io.reactivex.SingleEmitter;
+import io.reactivex.SingleOnSubscribe;
+import io.reactivex.SingleSource;
+import io.reactivex.annotations.NonNull;
+import io.reactivex.functions.Function;
+import io.reactivex.schedulers.Schedulers;
+
+@Open
+public class SocketInternetObservingStrategy implements InternetProbingStrategy {
+    private static final String EMPTY_STRING = "";
+    private static final String DEFAULT_HOST = "www.google.com";
+    private static final String HTTP_PROTOCOL = "http://";
+    private static final String HTTPS_PROTOCOL = "https://";
+
+    private final ResolverCache resolverCache;
+    private final HappyEyeballsConnector happyEyeballsConnector = new HappyEyeballsConnector();
+
+    public SocketInternetObservingStrategy() {
+        this(ResolverCache.getDefault());
+    }
+
+    public SocketInternetObservingStrategy(final ResolverCache resolverCache) {
+        Preconditions.checkNotNull(resolverCache, "resolverCache == null");
+        this.resolverCache = resolverCache;
+    }
+
+    public ResolverCache resolverCache() {
+        return resolverCache;
+    }
+
+    public HappyEyeballsConnector happyEyeballsConnector() {
+        return happyEyeballsConnector;
+    }
+
+    // strategies with equal configuration are interchangeable, which lets equal settings share
+    // one probe loop in InternetProbeEngine
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return resolverCache == ((SocketInternetObservingStrategy) o).resolverCache;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * getClass().hashCode() + resolverCache.hashCode();
+    }
+
+    @Override
+    public String getDefaultPingHost() {
+        return DEFAULT_HOST;
+    }
+
+    @Override
+    public Observable<Boolean> observeInternetConnectivity(final int initialIntervalInMs,
+                                                           final int intervalInMs, final String host, final int port, final int timeoutInMs,
+                                                           final int httpResponse, final ErrorHandler errorHandler) {
+        Preconditions.checkGreaterOrEqualToZero(initialIntervalInMs,
+                "initialIntervalInMs is not a positive number");
+        Preconditions.checkGreaterThanZero(intervalInMs, "intervalInMs is not a positive number");
+        checkGeneralPreconditions(host, port, timeoutInMs, errorHandler);
+
+        final String adjustedHost = adjustHost(host);
+
+        return Observable.interval(initialIntervalInMs, intervalInMs, TimeUnit.MILLISECONDS,
+                Schedulers.io()).map(new Function<Long, Boolean>() {
+            @Override
+            public Boolean apply(@NonNull Long tick) throws Exception {
+                return isConnected(adjustedHost, port, timeoutInMs, errorHandler);
+            }
+        }).distinctUntilChanged();
+    }
+
+    @Override
+    public Single<Boolean> checkInternetConnectivity(final String host, final int port,
+                                                     final int timeoutInMs, final int httpResponse, final ErrorHandler errorHandler) {
+        checkGeneralPreconditions(host, port, timeoutInMs, errorHandler);
+
+        return Single.create(new SingleOnSubscribe<Boolean>() {
+            @Override
+            public void subscribe(@NonNull SingleEmitter<Boolean> emitter) throws Exception {
+                emitter.onSuccess(isConnected(host, port, timeoutInMs, errorHandler));
+            }
+        });
+    }
+
+    @Override
+    public Observable<ProbeResult> observeProbeResults(final InternetObservingSettings settings) {
+        Preconditions.checkNotNull(settings, "settings == null");
+        Preconditions.checkGreaterOrEqualToZero(settings.initialInterval(),
+                "initialIntervalInMs is not a positive number");
+        Preconditions.checkGreaterThanZero(settings.interval(),
+                "intervalInMs is not a positive number");
+        checkGeneralPreconditions(settings.host(), settings.port(), settings.timeout(),
+                settings.errorHandler());
+
+        final String adjustedHost = adjustHost(settings.host());
+
+        final Single<ProbeResult> probe = ProbeMetrics.measure(
+                Single.fromCallable(new Callable<ProbeResult>() {
+                    @Override
+                    public ProbeResult call() {
+                        return probe(adjustedHost, settings.port(), settings.timeout(),
+                                settings.errorHandler(), settings.eventListener());
+                    }
+                }), settings);
+
+        return Observable.interval(settings.initialInterval(), settings.interval(),
+                TimeUnit.MILLISECONDS, Schedulers.io())
+                .concatMapSingle(new Function<Long, SingleSource<ProbeResult>>() {
+                    @Override
+                    public SingleSource<ProbeResult> apply(@NonNull Long tick) {
+                        return probe;
+                    }
+                });
+    }
+
+    @Override
+    public Single<ProbeResult> probeInternetConnectivity(
+            final InternetObservingSettings settings) {
+        Preconditions.checkNotNull(settings, "settings == null");
+        checkGeneralPreconditions(settings.host(), settings.port(), settings.timeout(),
+                settings.errorHandler());
+
+        final Single<ProbeResult> probe = Single.create(new SingleOnSubscribe<ProbeResult>() {
+            @Override
+            public void subscribe(@NonNull SingleEmitter<ProbeResult> emitter) {
+                emitter.onSuccess(probe(adjustHost(settings.host()), settings.port(),
+                        settings.timeout(), settings.errorHandler(), settings.eventListener()));
+            }
+        });
+        return ProbeMetrics.measure(probe, settings);
+    }
+
+    protected String adjustHost(final String host) {
+        if (host.startsWith(HTTP_PROTOCOL)) {
+            return host.replace(HTTP_PROTOCOL, EMPTY_STRING);
+        } else if (host.startsWith(HTTPS_PROTOCOL)) {
+            return host.replace(HTTPS_PROTOCOL, EMPTY_STRING);
+        }
+        return host;
+    }
+
+    private void checkGeneralPreconditions(String host, int port, int timeoutInMs,
+                                           ErrorHandler errorHandler) {
+        Preconditions.checkNotNullOrEmpty(host, "host is null or empty");
+        Preconditions.checkGreaterThanZero(port, "port is not a positive number");
+        Preconditions.checkGreaterThanZero(timeoutInMs, "timeoutInMs is not a positive number");
+        Preconditions.checkNotNull(errorHandler, "errorHandler is null");
+    }
+
+    protected boolean isConnected(final String host, final int port, final int timeoutInMs,
+                                  final ErrorHandler errorHandler) {
+        return probe(host, port, timeoutInMs, errorHandler).reachable();
+    }
+
+    protected ProbeResult probe(final String host, final int port, final int timeoutInMs,
+                                final ErrorHandler errorHandler) {
+        return probe(host, port, timeoutInMs, errorHandler, ProbeEventListener.NONE);
+    }
+
+    protected ProbeResult probe(final String host, final int port, final int timeoutInMs,
+                                final ErrorHandler errorHandler,
+                                final ProbeEventListener eventListener) {
+        final ProbeTrace trace = ProbeTrace.start(eventListener, host, port);
+        final ProbeResult result = probe(host, port, timeoutInMs, errorHandler, trace);
+        trace.probeEnd(result);
+        return result;
+    }
+
+    private ProbeResult probe(final String host, final int port, final int timeoutInMs,
+                              final ErrorHandler errorHandler, final ProbeTrace trace) {
+        final long start = System.nanoTime();
+        final InetAddress[] addresses;
+        try {
+            trace.dnsStart(host);
+            addresses = resolverCache.resolveAll(host);
+            trace.dnsEnd(host, addresses);
+        } catch (UnknownHostException exception) {
+            return ProbeResult.unreachable(elapsedInMs(start), exception);
+        }
+
+        if (HappyEyeballsConnector.isDualStack(addresses)) {
+            return probeRacingAddresses(addresses, port, timeoutInMs, start, trace);
+        }
+
+        final long connectStart = System.nanoTime();
+        final Socket socket = new Socket();
+        try {
+            trace.connectStart();
+            socket.connect(new InetSocketAddress(addresses[0], port), timeoutInMs);
+            trace.connectEnd();
+            return ProbeResult.builder()
+                    .reachable(socket.isConnected())
+                    .latencyInMs(elapsedInMs(start))
+                    .connectTimeInMs(elapsedInMs(connectStart))
+                    .remoteAddress(addresses[0])
+                    .build();
+        } catch (IOException e) {
+            return ProbeResult.unreachable(elapsedInMs(start), e);
+        } finally {
+            try {
+                socket.close();
+            } catch (IOException exception) {
+                errorHandler.handleError(exception, "Could not close the socket");
+            }
+        }
+    }
+
+    // a host with both IPv6 and IPv4 addresses is connected by racing both families,
+    // so a broken IPv6 path costs the attempt delay instead of the whole timeout
+    protected ProbeResult probeRacingAddresses(final InetAddress[] addresses, final int port,
+                                               final int timeoutInMs, final long start) {
+        return probeRacingAddresses(addresses, port, timeoutInMs, start, ProbeTrace.NONE);
+    }
+
+    private ProbeResult probeRacingAddresses(final InetAddress[] addresses, final int port,
+                                             final int timeoutInMs, final long start,
+                                             final ProbeTrace trace) {
+        final long connectStart = System.nanoTime();
+        try {
+            trace.connectStart();
+            final InetAddress winner = happyEyeballsConnector.connect(addresses, port, timeoutInMs);
+            trace.connectEnd();
+            return ProbeResult.builder()
+                    .reachable(true)
+                    .latencyInMs(elapsedInMs(start))
+                    .connectTimeInMs(elapsedInMs(connectStart))
+                    .remoteAddress(winner)
+                    .build();
+        } catch (IOException exception) {
+            return ProbeResult.unreachable(elapsedInMs(start), exception);
+        }
+    }
+
+    private static long elapsedInMs(final long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+}
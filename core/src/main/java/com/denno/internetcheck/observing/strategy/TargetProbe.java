@@ -0,0 +1,58 @@
+package com.denno.internetcheck.observing.strategy;
+
+import com.denno.internetcheck.observing.InternetObservingSettings;
+import com.denno.internetcheck.observing.InternetObservingStrategy;
+import com.denno.internetcheck.observing.InternetProbeEngine;
+import com.denno.internetcheck.observing.InternetProbingStrategy;
+import com.denno.internetcheck.observing.ProbeResult;
+import com.denno.internetcheck.observing.ProbeTarget;
+import com.denno.internetcheck.observing.error.ErrorHandler;
+import com.denno.internetcheck.observing.metrics.ProbeMetrics;
+
+import io.reactivex.Single;
+import io.reactivex.functions.Function;
+
+// The probe of one target of the multi-target strategies. It runs with the settings retargeted
+// to the target and its timeout, so metrics and events are recorded per target instead of
+// under the configured host only.
+final class TargetProbe {
+    static final Function<ProbeResult, Boolean> REACHABLE = new Function<ProbeResult, Boolean>() {
+        @Override
+        public Boolean apply(ProbeResult result) {
+            return result.reachable();
+        }
+    };
+
+    private TargetProbe() {
+    }
+
+    static Single<ProbeResult> probe(final InternetObservingStrategy delegate,
+                                     final InternetObservingSettings settings,
+                                     final ProbeTarget target) {
+        final InternetObservingSettings targetSettings = settings.toBuilder()
+                .strategy(delegate)
+                .host(target.host())
+                .port(target.port())
+                .timeout(target.timeoutInMs(settings.timeout()))
+                .build();
+        if (delegate instanceof InternetProbingStrategy) {
+            return ((InternetProbingStrategy) delegate).probeInternetConnectivity(targetSettings);
+        }
+        return ProbeMetrics.measure(InternetProbeEngine.timedCheck(targetSettings),
+                targetSettings);
+    }
+
+    // Boolean checks carry no settings, their results only tell whether the target answered
+    static Single<ProbeResult> check(final InternetObservingStrategy delegate,
+                                     final ProbeTarget target, final int timeoutInMs,
+                                     final int httpResponse, final ErrorHandler errorHandler) {
+        return delegate.checkInternetConnectivity(target.host(), target.port(),
+                target.timeoutInMs(timeoutInMs), httpResponse, errorHandler)
+                .map(new Function<Boolean, ProbeResult>() {
+                    @Override
+                    public ProbeResult apply(Boolean connected) {
+                        return ProbeResult.builder().reachable(connected).build();
+                    }
+                });
+    }
+}
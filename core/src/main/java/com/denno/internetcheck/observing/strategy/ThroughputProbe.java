@@ -0,0 +1,197 @@
+package com.denno.internetcheck.observing.strategy;
+
+import com.denno.internetcheck.Preconditions;
+import com.denno.internetcheck.observing.ThroughputEstimate;
+import com.denno.internetcheck.observing.error.DefaultErrorHandler;
+import com.denno.internetcheck.observing.error.ErrorHandler;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Single;
+import io.reactivex.SingleEmitter;
+import io.reactivex.SingleOnSubscribe;
+import io.reactivex.annotations.NonNull;
+
+// Opt-in downstream bandwidth probe: downloads at most maxBytes from the endpoint through
+// the connection setup of WalledGardenInternetObservingStrategy and smooths the measured
+// rate with an exponentially weighted moving average. Within minInterval of the previous
+// download, and after a failed one, the last estimate is returned without network traffic.
+@SuppressWarnings("PMD") // I want to have the same method names as variable names on purpose
+public final class ThroughputProbe {
+    private final WalledGardenInternetObservingStrategy strategy;
+    private final String endpoint;
+    private final int port;
+    private final int timeout;
+    private final int maxBytes;
+    private final int minInterval;
+    private final double smoothing;
+    private final ErrorHandler errorHandler;
+
+    private ThroughputEstimate estimate = ThroughputEstimate.unknown();
+    private long lastSampleAt;
+    private boolean sampled;
+
+    private ThroughputProbe(Builder builder) {
+        strategy = builder.strategy;
+        endpoint = strategy.adjustHost(builder.endpoint);
+        port = builder.port;
+        timeout = builder.timeout;
+        maxBytes = builder.maxBytes;
+        minInterval = builder.minInterval;
+        smoothing = builder.smoothing;
+        errorHandler = builder.errorHandler;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public synchronized ThroughputEstimate lastEstimate() {
+        return estimate;
+    }
+
+    public Single<ThroughputEstimate> estimateThroughput() {
+        return Single.create(new SingleOnSubscribe<ThroughputEstimate>() {
+            @Override
+            public void subscribe(@NonNull SingleEmitter<ThroughputEstimate> emitter) {
+                emitter.onSuccess(measure());
+            }
+        });
+    }
+
+    private ThroughputEstimate measure() {
+        synchronized (this) {
+            final long now = System.nanoTime();
+            if (sampled && TimeUnit.NANOSECONDS.toMillis(now - lastSampleAt) < minInterval) {
+                return estimate.stale();
+            }
+            // claims the slot, so concurrent callers get the previous estimate meanwhile
+            sampled = true;
+            lastSampleAt = now;
+        }
+
+        HttpURLConnection urlConnection = null;
+        try {
+            urlConnection = strategy.createUrlConnection(endpoint, port, timeout);
+            final int responseCode = urlConnection.getResponseCode();
+            if (responseCode < HttpURLConnection.HTTP_OK
+                    || responseCode >= HttpURLConnection.HTTP_MULT_CHOICE) {
+                throw new IOException("Unexpected response code " + responseCode);
+            }
+            return download(urlConnection.getInputStream());
+        } catch (IOException e) {
+            errorHandler.handleError(e, "Could not estimate throughput with ThroughputProbe");
+            return lastEstimate().stale();
+        } finally {
+            if (urlConnection != null) {
+                urlConnection.disconnect();
+            }
+        }
+    }
+
+    // the clock starts once the response headers arrived, so connection setup and server
+    // think time do not count as bandwidth
+    private ThroughputEstimate download(final InputStream body) throws IOException {
+        try {
+            final byte[] buffer = new byte[8192];
+            final long start = System.nanoTime();
+            long bytes = 0;
+            while (bytes < maxBytes) {
+                final int length = (int) Math.min(buffer.length, maxBytes - bytes);
+                final int read = body.read(buffer, 0, length);
+                if (read == -1) {
+                    break;
+                }
+                bytes += read;
+            }
+            if (bytes == 0) {
+                throw new IOException("Empty response body");
+            }
+            return update(bytes, Math.max(System.nanoTime() - start, 1));
+        } finally {
+            body.close();
+        }
+    }
+
+    private synchronized ThroughputEstimate update(final long bytes, final long durationInNanos) {
+        final double sample = bytes * (double) TimeUnit.SECONDS.toNanos(1) / durationInNanos;
+        final double smoothed = estimate.known()
+                ? smoothing * sample + (1 - smoothing) * estimate.bytesPerSecond() : sample;
+        estimate = new ThroughputEstimate(smoothed, sample, bytes,
+                TimeUnit.NANOSECONDS.toMillis(durationInNanos), true);
+        return estimate;
+    }
+
+    public final static class Builder {
+        private WalledGardenInternetObservingStrategy strategy =
+                new WalledGardenInternetObservingStrategy();
+        private String endpoint;
+        private int port = 443;
+        private int timeout = 5000;
+        private int maxBytes = 256 * 1024;
+        private int minInterval = 60000;
+        private double smoothing = 0.3;
+        private ErrorHandler errorHandler = new DefaultErrorHandler();
+
+        private Builder() {
+        }
+
+        public Builder strategy(WalledGardenInternetObservingStrategy strategy) {
+            this.strategy = strategy;
+            return this;
+        }
+
+        public Builder endpoint(String endpoint) {
+            this.endpoint = endpoint;
+            return this;
+        }
+
+        public Builder port(int port) {
+            this.port = port;
+            return this;
+        }
+
+        public Builder timeout(int timeout) {
+            this.timeout = timeout;
+            return this;
+        }
+
+        public Builder maxBytes(int maxBytes) {
+            this.maxBytes = maxBytes;
+            return this;
+        }
+
+        public Builder minInterval(int minInterval) {
+            this.minInterval = minInterval;
+            return this;
+        }
+
+        // weight of the newest sample, between 0 (exclusive) and 1
+        public Builder smoothing(double smoothing) {
+            this.smoothing = smoothing;
+            return this;
+        }
+
+        public Builder errorHandler(ErrorHandler errorHandler) {
+            this.errorHandler = errorHandler;
+            return this;
+        }
+
+        public ThroughputProbe build() {
+            Preconditions.checkNotNull(strategy, "strategy == null");
+            Preconditions.checkNotNullOrEmpty(endpoint, "endpoint is null or empty");
+            Preconditions.checkGreaterThanZero(port, "port is not a positive number");
+            Preconditions.checkGreaterThanZero(timeout, "timeout is not a positive number");
+            Preconditions.checkGreaterThanZero(maxBytes, "maxBytes is not a positive number");
+            Preconditions.checkGreaterOrEqualToZero(minInterval,
+                    "minInterval is not a positive number");
+            Preconditions.checkArgument(smoothing > 0 && smoothing <= 1,
+                    "smoothing is not within (0, 1]");
+            Preconditions.checkNotNull(errorHandler, "errorHandler is null");
+            return new ThroughputProbe(this);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.denno.internetcheck.observing.strategy;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+
+// HttpsURLConnection connects and shakes hands inside connect(), this factory wraps the sockets
+// it creates so the end of the TCP connect and the TLS handshake reach the probe's trace. The
+// trace is taken from the creating thread. One shared instance keeps keep-alive connections
+// reusable, since HttpsURLConnection only pools connections of the same factory.
+final class TracingSslSocketFactory extends SSLSocketFactory {
+    private static final ThreadLocal<ProbeTrace> TRACES = new ThreadLocal<>();
+    private static volatile TracingSslSocketFactory instance;
+
+    private final SSLSocketFactory delegate;
+
+    private TracingSslSocketFactory(final SSLSocketFactory delegate) {
+        this.delegate = delegate;
+    }
+
+    // wraps the default factory of HttpsURLConnection, anew only when that factory is replaced
+    static TracingSslSocketFactory getInstance(final SSLSocketFactory defaultFactory) {
+        TracingSslSocketFactory factory = instance;
+        if (factory == null || factory.delegate != defaultFactory) {
+            factory = new TracingSslSocketFactory(defaultFactory);
+            instance = factory;
+        }
+        return factory;
+    }
+
+    static void attach(final ProbeTrace trace) {
+        TRACES.set(trace);
+    }
+
+    static void detach() {
+        TRACES.remove();
+    }
+
+    private static ProbeTrace currentTrace() {
+        final ProbeTrace trace = TRACES.get();
+        return trace != null ? trace : ProbeTrace.NONE;
+    }
+
+    @Override
+    public String[] getDefaultCipherSuites() {
+        return delegate.getDefaultCipherSuites();
+    }
+
+    @Override
+    public String[] getSupportedCipherSuites() {
+        return delegate.getSupportedCipherSuites();
+    }
+
+    // not connected yet, the socket reports the end of its connect
+    @Override
+    public Socket createSocket() throws IOException {
+        return wrap(delegate.createSocket(), currentTrace());
+    }
+
+    // layered over a connected plain socket, as Android's HttpsURLConnection does
+    @Override
+    public Socket createSocket(final Socket socket, final String host, final int port,
+                               final boolean autoClose) throws IOException {
+        final ProbeTrace trace = currentTrace();
+        trace.connectEnd();
+        return wrap(delegate.createSocket(socket, host, port, autoClose), trace);
+    }
+
+    @Override
+    public Socket createSocket(final String host, final int port) throws IOException {
+        return connected(delegate.createSocket(host, port));
+    }
+
+    @Override
+    public Socket createSocket(final String host, final int port, final InetAddress localHost,
+                               final int localPort) throws IOException {
+        return connected(delegate.createSocket(host, port, localHost, localPort));
+    }
+
+    @Override
+    public Socket createSocket(final InetAddress host, final int port) throws IOException {
+        return connected(delegate.createSocket(host, port));
+    }
+
+    @Override
+    public Socket createSocket(final InetAddress address, final int port,
+                               final InetAddress localAddress, final int localPort)
+            throws IOException {
+        return connected(delegate.createSocket(address, port, localAddress, localPort));
+    }
+
+    private static Socket connected(final Socket socket) {
+        final ProbeTrace trace = currentTrace();
+        trace.connectEnd();
+        return wrap(socket, trace);
+    }
+
+    private static Socket wrap(final Socket socket, final ProbeTrace trace) {
+        if (!trace.enabled() || !(socket instanceof SSLSocket)) {
+            return socket;
+        }
+        return new TracingSslSocket((SSLSocket) socket, trace);
+    }
+}
@@ -0,0 +1,442 @@
+package com.denno.internetcheck.observing.strategy;
+
+import com.jakewharton.nopen.annotation.Open;
+import com.denno.internetcheck.Preconditions;
+import com.denno.internetcheck.observing.InternetObservingSettings;
+import com.denno.internetcheck.observing.InternetProbingStrategy;
+import com.denno.internetcheck.observing.ProbeResult;
+import com.denno.internetcheck.observing.error.ErrorHandler;
+import com.denno.internetcheck.observing.event.ProbeEventListener;
+import com.denno.internetcheck.observing.portal.CaptivePortalCache;
+import com.denno.internetcheck.observing.metrics.ProbeMetrics;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.HttpsURLConnection;
+
+import io.reactivex.Observable;
+import io.reactivex.Single;
+import io.reactivex.SingleEmitter;
+import io.reactivex.SingleOnSubscribe;
+import io.reactivex.SingleSource;
+import io.reactivex.annotations.NonNull;
+import io.reactivex.functions.Function;
+import io.reactivex.schedulers.Schedulers;
+
+@Open
+public class WalledGardenInternetObservingStrategy implements InternetProbingStrategy {
+    private static final String DEFAULT_HOST = "https://clients3.google.com/generate_204";
+    private static final String HTTP_PROTOCOL = "http://";
+    private static final String HTTPS_PROTOCOL = "https://";
+    private static final String HEAD_METHOD = "HEAD";
+    private static final int MAX_DRAINED_BYTES = 1024;
+
+    private final boolean persistentConnection;
+    // null unless captive portal verdicts are to be cached
+    private final CaptivePortalCache captivePortalCache;
+    // host:port of the endpoints whose last persistent probe left its connection to the
+    // keep-alive pool; a probe claims the entry, so concurrent ones do not count on it as well
+    private final Set<String> pooledEndpoints =
+            Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    public WalledGardenInternetObservingStrategy() {
+        this(false);
+    }
+
+    // when persistentConnection is set, probes are HEAD requests whose connection is left to
+    // the keep-alive pool, so consecutive probes skip DNS, TCP and TLS setup
+    public WalledGardenInternetObservingStrategy(final boolean persistentConnection) {
+        this.persistentConnection = persistentConnection;
+        this.captivePortalCache = null;
+    }
+
+    // probes of a host behind a known captive portal are answered from captivePortalCache;
+    // pass CaptivePortalCache.getDefault() to have ConnectivityMonitor tell it about the
+    // network. Portals can only be told apart with a plain http host, they cannot intercept https
+    public WalledGardenInternetObservingStrategy(final boolean persistentConnection,
+                                                 final CaptivePortalCache captivePortalCache) {
+        Preconditions.checkNotNull(captivePortalCache, "captivePortalCache == null");
+        this.persistentConnection = persistentConnection;
+        this.captivePortalCache = captivePortalCache;
+    }
+
+    public boolean persistentConnection() {
+        return persistentConnection;
+    }
+
+    public CaptivePortalCache captivePortalCache() {
+        return captivePortalCache;
+    }
+
+    // strategies with equal configuration are interchangeable, which lets equal settings share
+    // one probe loop in InternetProbeEngine
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final WalledGardenInternetObservingStrategy that =
+                (WalledGardenInternetObservingStrategy) o;
+        return persistentConnection == that.persistentConnection
+                && captivePortalCache == that.captivePortalCache;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 31 * getClass().hashCode() + (persistentConnection ? 1 : 0);
+        result = 31 * result + (captivePortalCache != null ? captivePortalCache.hashCode() : 0);
+        return result;
+    }
+
+    @Override
+    public String getDefaultPingHost() {
+        return DEFAULT_HOST;
+    }
+
+    @Override
+    public Observable<Boolean> observeInternetConnectivity(final int initialIntervalInMs,
+                                                           final int intervalInMs, final String host, final int port, final int timeoutInMs,
+                                                           final int httpResponse,
+                                                           final ErrorHandler errorHandler) {
+
+        Preconditions.checkGreaterOrEqualToZero(initialIntervalInMs,
+                "initialIntervalInMs is not a positive number");
+        Preconditions.checkGreaterThanZero(intervalInMs, "intervalInMs is not a positive number");
+        checkGeneralPreconditions(host, port, timeoutInMs, httpResponse, errorHandler);
+
+        final String adjustedHost = adjustHost(host);
+
+        return Observable.interval(initialIntervalInMs, intervalInMs, TimeUnit.MILLISECONDS,
+                Schedulers.io()).map(new Function<Long, Boolean>() {
+            @Override
+            public Boolean apply(@NonNull Long tick) {
+                return isConnected(adjustedHost, port, timeoutInMs, httpResponse, errorHandler);
+            }
+        }).distinctUntilChanged();
+    }
+
+    @Override
+    public Single<Boolean> checkInternetConnectivity(final String host, final int port,
+                                                     final int timeoutInMs, final int httpResponse, final ErrorHandler errorHandler) {
+        checkGeneralPreconditions(host, port, timeoutInMs, httpResponse, errorHandler);
+
+        return Single.create(new SingleOnSubscribe<Boolean>() {
+            @Override
+            public void subscribe(@NonNull SingleEmitter<Boolean> emitter) {
+                emitter.onSuccess(isConnected(host, port, timeoutInMs, httpResponse, errorHandler));
+            }
+        });
+    }
+
+    @Override
+    public Observable<ProbeResult> observeProbeResults(final InternetObservingSettings settings) {
+        Preconditions.checkNotNull(settings, "settings == null");
+        Preconditions.checkGreaterOrEqualToZero(settings.initialInterval(),
+                "initialIntervalInMs is not a positive number");
+        Preconditions.checkGreaterThanZero(settings.interval(),
+                "intervalInMs is not a positive number");
+        checkGeneralPreconditions(settings.host(), settings.port(), settings.timeout(),
+                settings.httpResponse(), settings.errorHandler());
+
+        final String adjustedHost = adjustHost(settings.host());
+
+        final Single<ProbeResult> probe = ProbeMetrics.measure(
+                Single.fromCallable(new Callable<ProbeResult>() {
+                    @Override
+                    public ProbeResult call() {
+                        return probe(adjustedHost, settings.port(), settings.timeout(),
+                                settings.httpResponse(), settings.errorHandler(),
+                                settings.eventListener());
+                    }
+                }), settings);
+
+        return Observable.interval(settings.initialInterval(), settings.interval(),
+                TimeUnit.MILLISECONDS, Schedulers.io())
+                .concatMapSingle(new Function<Long, SingleSource<ProbeResult>>() {
+                    @Override
+                    public SingleSource<ProbeResult> apply(@NonNull Long tick) {
+                        return probe;
+                    }
+                });
+    }
+
+    @Override
+    public Single<ProbeResult> probeInternetConnectivity(
+            final InternetObservingSettings settings) {
+        Preconditions.checkNotNull(settings, "settings == null");
+        checkGeneralPreconditions(settings.host(), settings.port(), settings.timeout(),
+                settings.httpResponse(), settings.errorHandler());
+
+        final Single<ProbeResult> probe = Single.create(new SingleOnSubscribe<ProbeResult>() {
+            @Override
+            public void subscribe(@NonNull SingleEmitter<ProbeResult> emitter) {
+                emitter.onSuccess(probe(adjustHost(settings.host()), settings.port(),
+                        settings.timeout(), settings.httpResponse(), settings.errorHandler(),
+                        settings.eventListener()));
+            }
+        });
+        return ProbeMetrics.measure(probe, settings);
+    }
+
+    protected String adjustHost(final String host) {
+        if (!host.startsWith(HTTP_PROTOCOL) && !host.startsWith(HTTPS_PROTOCOL)) {
+            return HTTPS_PROTOCOL.concat(host);
+        }
+
+        return host;
+    }
+
+    private void checkGeneralPreconditions(final String host, final int port, final int timeoutInMs,
+                                           final int httpResponse, final ErrorHandler errorHandler) {
+        Preconditions.checkNotNullOrEmpty(host, "host is null or empty");
+        Preconditions.checkGreaterThanZero(port, "port is not a positive number");
+        Preconditions.checkGreaterThanZero(timeoutInMs, "timeoutInMs is not a positive number");
+        Preconditions.checkNotNull(errorHandler, "errorHandler is null");
+        Preconditions.checkNotNull(httpResponse, "httpResponse is null");
+        Preconditions.checkGreaterThanZero(httpResponse, "httpResponse is not a positive number");
+    }
+
+    protected Boolean isConnected(final String host, final int port, final int timeoutInMs,
+                                  final int httpResponse, final ErrorHandler errorHandler) {
+        return probe(host, port, timeoutInMs, httpResponse, errorHandler).reachable();
+    }
+
+    protected ProbeResult probe(final String host, final int port, final int timeoutInMs,
+                                final int httpResponse, final ErrorHandler errorHandler) {
+        return probe(host, port, timeoutInMs, httpResponse, errorHandler,
+                ProbeEventListener.NONE);
+    }
+
+    protected ProbeResult probe(final String host, final int port, final int timeoutInMs,
+                                final int httpResponse, final ErrorHandler errorHandler,
+                                final ProbeEventListener eventListener) {
+        final ProbeTrace trace = ProbeTrace.start(eventListener, host, port);
+        final String network = captivePortalCache != null ? captivePortalCache.network() : null;
+        if (network != null) {
+            final ProbeResult cached = captivePortalCache.cachedVerdict(network, host);
+            if (cached != null) {
+                trace.probeEnd(cached);
+                return cached;
+            }
+        }
+
+        final long start = System.nanoTime();
+        final ProbeResult result = persistentConnection
+                ? probeReusingConnection(host, port, timeoutInMs, httpResponse, errorHandler,
+                start, trace)
+                : probeOnce(host, port, timeoutInMs, httpResponse, errorHandler, start, trace);
+        if (network != null) {
+            captivePortalCache.update(network, host, result);
+        }
+        trace.probeEnd(result);
+        return result;
+    }
+
+    private ProbeResult probeOnce(final String host, final int port, final int timeoutInMs,
+                                  final int httpResponse, final ErrorHandler errorHandler,
+                                  final long start, final ProbeTrace trace) {
+        HttpURLConnection urlConnection = null;
+        try {
+            urlConnection = createUrlConnection(host, port, timeoutInMs, trace);
+            return request(urlConnection, httpResponse, start, trace);
+        } catch (IOException e) {
+            errorHandler.handleError(e, "Could not establish connection with WalledGardenStrategy");
+            return ProbeResult.unreachable(elapsedInMs(start), e);
+        } finally {
+            if (urlConnection != null) {
+                urlConnection.disconnect();
+            }
+        }
+    }
+
+    protected ProbeResult probeReusingConnection(final String host, final int port,
+                                                 final int timeoutInMs, final int httpResponse,
+                                                 final ErrorHandler errorHandler,
+                                                 final long start) {
+        return probeReusingConnection(host, port, timeoutInMs, httpResponse, errorHandler, start,
+                ProbeTrace.NONE);
+    }
+
+    private ProbeResult probeReusingConnection(final String host, final int port,
+                                               final int timeoutInMs, final int httpResponse,
+                                               final ErrorHandler errorHandler, final long start,
+                                               final ProbeTrace trace) {
+        final String endpoint = host + ":" + port;
+        final boolean pooled = pooledEndpoints.remove(endpoint);
+        try {
+            return requestHead(host, port, timeoutInMs, httpResponse, start, endpoint, trace);
+        } catch (IOException exception) {
+            // a pooled connection may have been dropped by the server or the network, which
+            // fails fast; the probe is then repeated once on a fresh connection. Without a pooled
+            // connection, or after a timeout, a retry would only double the time to go offline
+            if (!pooled || exception instanceof SocketTimeoutException) {
+                errorHandler.handleError(exception,
+                        "Could not establish connection with WalledGardenStrategy");
+                return ProbeResult.unreachable(elapsedInMs(start), exception);
+            }
+        }
+
+        try {
+            return requestHead(host, port, timeoutInMs, httpResponse, start, endpoint, trace);
+        } catch (IOException e) {
+            errorHandler.handleError(e, "Could not establish connection with WalledGardenStrategy");
+            return ProbeResult.unreachable(elapsedInMs(start), e);
+        }
+    }
+
+    private ProbeResult requestHead(final String host, final int port, final int timeoutInMs,
+                                    final int httpResponse, final long start,
+                                    final String endpoint, final ProbeTrace trace)
+            throws IOException {
+        final HttpURLConnection urlConnection =
+                createUrlConnection(host, port, timeoutInMs, trace);
+        try {
+            urlConnection.setRequestMethod(HEAD_METHOD);
+            final ProbeResult result = request(urlConnection, httpResponse, start, trace);
+            if (drainResponseBody(urlConnection)) {
+                pooledEndpoints.add(endpoint);
+            } else {
+                urlConnection.disconnect();
+            }
+            return result;
+        } catch (IOException exception) {
+            urlConnection.disconnect();
+            throw exception;
+        }
+    }
+
+    private ProbeResult request(final HttpURLConnection urlConnection, final int httpResponse,
+                                final long start, final ProbeTrace trace) throws IOException {
+        final long connectStart = System.nanoTime();
+        trace.connectStart();
+        connect(urlConnection, trace);
+        // plain http or a reused connection, a new TLS connection has reported it already
+        trace.connectEnd();
+        final long connectTimeInMs = elapsedInMs(connectStart);
+        final int responseCode = urlConnection.getResponseCode();
+        trace.responseHeaders(responseCode);
+        final ProbeResult.Builder result = ProbeResult.builder()
+                .reachable(responseCode == httpResponse)
+                .latencyInMs(elapsedInMs(start))
+                .connectTimeInMs(connectTimeInMs)
+                .httpStatus(responseCode);
+        if (responseCode != httpResponse) {
+            final CaptivePortalClassifier portal =
+                    CaptivePortalClassifier.classify(urlConnection, responseCode);
+            result.captivePortal(portal.captivePortal()).portalUrl(portal.portalUrl());
+        }
+        return result.build();
+    }
+
+    private static void connect(final HttpURLConnection urlConnection, final ProbeTrace trace)
+            throws IOException {
+        if (!trace.enabled()) {
+            urlConnection.connect();
+            return;
+        }
+
+        TracingSslSocketFactory.attach(trace);
+        try {
+            urlConnection.connect();
+        } finally {
+            TracingSslSocketFactory.detach();
+        }
+    }
+
+    // HttpURLConnection resolves the host itself; only traced probes look it up ahead, to
+    // report the lookup, and the connection then finds the addresses in the platform cache
+    private HttpURLConnection createUrlConnection(final String host, final int port,
+                                                  final int timeoutInMs, final ProbeTrace trace)
+            throws IOException {
+        if (trace.enabled()) {
+            final String hostName = new URL(host).getHost();
+            trace.dnsStart(hostName);
+            final InetAddress[] addresses = InetAddress.getAllByName(hostName);
+            trace.dnsEnd(hostName, addresses);
+        }
+
+        final HttpURLConnection urlConnection = createUrlConnection(host, port, timeoutInMs);
+        if (trace.enabled() && urlConnection instanceof HttpsURLConnection) {
+            final HttpsURLConnection httpsConnection = (HttpsURLConnection) urlConnection;
+            httpsConnection.setSSLSocketFactory(
+                    TracingSslSocketFactory.getInstance(httpsConnection.getSSLSocketFactory()));
+        }
+        return urlConnection;
+    }
+
+    private static long elapsedInMs(final long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    // the connection goes back to the keep-alive pool only when its body is fully consumed,
+    // which for HEAD requests and 204 responses is empty; longer bodies are not worth reading
+    private boolean drainResponseBody(final HttpURLConnection urlConnection) throws IOException {
+        final boolean isError =
+                urlConnection.getResponseCode() >= HttpURLConnection.HTTP_BAD_REQUEST;
+        final InputStream body =
+                isError ? urlConnection.getErrorStream() : urlConnection.getInputStream();
+        if (body == null) {
+            return true;
+        }
+
+        try {
+            final byte[] buffer = new byte[MAX_DRAINED_BYTES];
+            int drained = 0;
+            int read;
+            while ((read = body.read(buffer, 0, buffer.length)) != -1) {
+                drained += read;
+                if (drained >= MAX_DRAINED_BYTES) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            body.close();
+        }
+    }
+
+    protected HttpURLConnection createUrlConnection(final String host, final int port,
+                                                    final int timeoutInMs) throws IOException {
+        if (host.startsWith(HTTPS_PROTOCOL)) {
+            return createHttpsUrlConnection(host, port, timeoutInMs);
+        }
+        return createHttpUrlConnection(host, port, timeoutInMs);
+    }
+
+    protected HttpURLConnection createHttpUrlConnection(final String host, final int port,
+                                                        final int timeoutInMs) throws IOException {
+        URL initialUrl = new URL(host);
+        URL url = new URL(initialUrl.getProtocol(), initialUrl.getHost(), port, initialUrl.getFile());
+        HttpURLConnection urlConnection = (HttpURLConnection) url.openConnection();
+        urlConnection.setConnectTimeout(timeoutInMs);
+        urlConnection.setReadTimeout(timeoutInMs);
+        urlConnection.setInstanceFollowRedirects(false);
+        urlConnection.setUseCaches(false);
+        return urlConnection;
+    }
+
+    protected HttpsURLConnection createHttpsUrlConnection(final String host, final int port,
+                                                          final int timeoutInMs) throws IOException {
+        URL initialUrl = new URL(host);
+        URL url = new URL(initialUrl.getProtocol(), initialUrl.getHost(), port, initialUrl.getFile());
+        HttpsURLConnection urlConnection = (HttpsURLConnection) url.openConnection();
+        urlConnection.setConnectTimeout(timeoutInMs);
+        urlConnection.setReadTimeout(timeoutInMs);
+        urlConnection.setInstanceFollowRedirects(false);
+        urlConnection.setUseCaches(false);
+        return urlConnection;
+    }
+}
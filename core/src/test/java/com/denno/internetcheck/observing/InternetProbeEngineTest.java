@@ -0,0 +1,273 @@
+package com.denno.internetcheck.observing;
+
+import com.denno.internetcheck.observing.error.ErrorHandler;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.reactivex.Observable;
+import io.reactivex.Single;
+import io.reactivex.SingleSource;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.functions.Action;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.schedulers.TestScheduler;
+import io.reactivex.subjects.PublishSubject;
+import io.reactivex.subjects.SingleSubject;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+public class InternetProbeEngineTest {
+    private final TestScheduler scheduler = new TestScheduler();
+    private final InternetProbeEngine engine = new InternetProbeEngine(scheduler);
+    private final FakeStrategy strategy = new FakeStrategy();
+    private final PublishSubject<Object> networkChanges = PublishSubject.create();
+
+    @Test
+    public void shouldShareOneLoopBetweenEqualSettings() {
+        final TestObserver<Boolean> first =
+                engine.observeInternetConnectivity(settings("host")).test();
+        final TestObserver<Boolean> second =
+                engine.observeInternetConnectivity(settings("host")).test();
+
+        strategy.loop.onNext(true);
+
+        assertEquals(1, strategy.loops.get());
+        assertEquals(1, engine.activeProbes());
+        first.assertValues(true);
+        second.assertValues(true);
+    }
+
+    @Test
+    public void shouldReplayLatestResultToLateSubscribers() {
+        final TestObserver<Boolean> first =
+                engine.observeInternetConnectivity(settings("host")).test();
+        strategy.loop.onNext(false);
+        strategy.loop.onNext(true);
+
+        final TestObserver<Boolean> late =
+                engine.observeInternetConnectivity(settings("host")).test();
+
+        first.assertValues(false, true);
+        late.assertValues(true);
+        assertEquals(1, strategy.loops.get());
+    }
+
+    @Test
+    public void shouldRunSeparateLoopsForDifferentSettings() {
+        engine.observeInternetConnectivity(settings("host")).test();
+        engine.observeInternetConnectivity(settings("other")).test();
+
+        assertEquals(2, strategy.loops.get());
+        assertEquals(2, engine.activeProbes());
+    }
+
+    @Test
+    public void shouldStopLoopWithLastSubscription() {
+        final Disposable first = engine.observeInternetConnectivity(settings("host")).subscribe();
+        final Disposable second = engine.observeInternetConnectivity(settings("host")).subscribe();
+
+        first.dispose();
+        assertEquals(0, strategy.stoppedLoops.get());
+        assertEquals(1, engine.activeProbes());
+
+        second.dispose();
+        assertEquals(1, strategy.stoppedLoops.get());
+        assertEquals(0, engine.activeProbes());
+    }
+
+    @Test
+    public void shouldStartNewLoopAfterTeardown() {
+        engine.observeInternetConnectivity(settings("host")).subscribe().dispose();
+
+        engine.observeInternetConnectivity(settings("host")).test();
+
+        assertEquals(2, strategy.loops.get());
+        assertEquals(1, engine.activeProbes());
+    }
+
+    @Test
+    public void shouldForgetLoopWhichCompleted() {
+        final Observable<Boolean> loop = engine.observeInternetConnectivity(settings("host"));
+        loop.test();
+
+        strategy.loop.onComplete();
+
+        assertEquals(0, engine.activeProbes());
+        assertNotSame(loop, engine.observeInternetConnectivity(settings("host")));
+    }
+
+    @Test
+    public void shouldJoinCheckInFlight() {
+        final TestObserver<Boolean> first = check(60000).test();
+        final TestObserver<Boolean> second = check(60000).test();
+
+        strategy.checks.get(0).onSuccess(true);
+
+        assertEquals(1, strategy.checks.size());
+        first.assertResult(true);
+        second.assertResult(true);
+    }
+
+    @Test
+    public void shouldAnswerFromRecentResult() {
+        check(60000).test();
+        strategy.checks.get(0).onSuccess(true);
+
+        check(60000).test().assertResult(true);
+
+        assertEquals(1, strategy.checks.size());
+    }
+
+    @Test
+    public void shouldCheckAgainWhenResultIsTooOld() throws InterruptedException {
+        check(0).test();
+        strategy.checks.get(0).onSuccess(true);
+        Thread.sleep(5);
+
+        check(0).test();
+
+        assertEquals(2, strategy.checks.size());
+    }
+
+    @Test
+    public void shouldCheckAgainAfterInvalidation() {
+        check(60000).test();
+        strategy.checks.get(0).onSuccess(true);
+
+        engine.invalidate();
+        final TestObserver<Boolean> afterInvalidation = check(60000).test();
+        strategy.checks.get(1).onSuccess(false);
+
+        assertEquals(2, strategy.checks.size());
+        afterInvalidation.assertResult(false);
+    }
+
+    @Test
+    public void shouldNotJoinCheckStartedBeforeInvalidation() {
+        final TestObserver<Boolean> stale = check(60000).test();
+
+        engine.invalidate();
+        final TestObserver<Boolean> fresh = check(60000).test();
+        strategy.checks.get(0).onSuccess(true);
+        strategy.checks.get(1).onSuccess(false);
+
+        assertEquals(2, strategy.checks.size());
+        stale.assertResult(true);
+        fresh.assertResult(false);
+        // the stale result must not replace the newer one
+        check(60000).test().assertResult(false);
+    }
+
+    @Test
+    public void shouldNotCacheFailedCheck() {
+        check(60000).test();
+        strategy.checks.get(0).onError(new IllegalStateException());
+
+        check(60000).test();
+
+        assertEquals(2, strategy.checks.size());
+    }
+
+    @Test
+    public void shouldWatchNetworkWhileResultsAreCached() {
+        assertFalse(engine.watchesNetwork());
+
+        check(1000).test();
+        strategy.checks.get(0).onSuccess(true);
+
+        assertTrue(engine.watchesNetwork());
+        assertTrue(networkChanges.hasObservers());
+    }
+
+    @Test
+    public void shouldPruneExpiredResultsAndStopWatchingNetwork() {
+        check(1000).test();
+        strategy.checks.get(0).onSuccess(true);
+        engine.invalidate();
+
+        scheduler.advanceTimeBy(1001, TimeUnit.MILLISECONDS);
+
+        assertEquals(0, engine.cachedChecks());
+        assertFalse(engine.watchesNetwork());
+        assertFalse(networkChanges.hasObservers());
+    }
+
+    @Test
+    public void shouldKeepRecentResultsWhenPruning() {
+        check(60000).test();
+        strategy.checks.get(0).onSuccess(true);
+        check(1000).test();
+
+        scheduler.advanceTimeBy(1001, TimeUnit.MILLISECONDS);
+
+        assertEquals(1, engine.cachedChecks());
+        assertTrue(engine.watchesNetwork());
+    }
+
+    private Single<Boolean> check(final int maxAgeInMs) {
+        return engine.checkInternetConnectivity(settings("host"), maxAgeInMs, networkChanges);
+    }
+
+    private InternetObservingSettings settings(final String host) {
+        return InternetObservingSettings.builder()
+                .host(host)
+                .strategy(strategy)
+                .build();
+    }
+
+    private static final class FakeStrategy implements InternetObservingStrategy {
+        final AtomicInteger loops = new AtomicInteger();
+        final AtomicInteger stoppedLoops = new AtomicInteger();
+        final List<SingleSubject<Boolean>> checks = new CopyOnWriteArrayList<>();
+        PublishSubject<Boolean> loop;
+
+        @Override
+        public Observable<Boolean> observeInternetConnectivity(int initialIntervalInMs,
+                                                               int intervalInMs, String host,
+                                                               int port, int timeoutInMs,
+                                                               int httpResponse,
+                                                               ErrorHandler errorHandler) {
+            return Observable.defer(new Callable<Observable<Boolean>>() {
+                @Override
+                public Observable<Boolean> call() {
+                    loops.incrementAndGet();
+                    loop = PublishSubject.create();
+                    return loop.doOnDispose(new Action() {
+                        @Override
+                        public void run() {
+                            stoppedLoops.incrementAndGet();
+                        }
+                    });
+                }
+            });
+        }
+
+        @Override
+        public Single<Boolean> checkInternetConnectivity(String host, int port, int timeoutInMs,
+                                                         int httpResponse,
+                                                         ErrorHandler errorHandler) {
+            return Single.defer(new Callable<SingleSource<Boolean>>() {
+                @Override
+                public SingleSource<Boolean> call() {
+                    final SingleSubject<Boolean> check = SingleSubject.create();
+                    checks.add(check);
+                    return check;
+                }
+            });
+        }
+
+        @Override
+        public String getDefaultPingHost() {
+            return "host";
+        }
+    }
+}
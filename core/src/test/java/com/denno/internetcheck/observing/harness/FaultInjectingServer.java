@@ -0,0 +1,229 @@
+package com.denno.internetcheck.observing.harness;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// In-process TCP and HTTP stand-in for a probe endpoint on the loopback interface. Every
+// accepted connection is served according to the current FaultProfile.
+public final class FaultInjectingServer {
+    private static final Charset ASCII = Charset.forName("US-ASCII");
+    private static final int BACKLOG = 128;
+    private static final int SLOW_BODY_LENGTH = 64;
+    static final String THREAD_NAME_PREFIX = "fault-server-";
+    private static final byte[] PORTAL_PAGE = ("<html><head><meta http-equiv=\"refresh\" "
+            + "content=\"0; url=http://captive.portal.invalid/login\"></head></html>")
+            .getBytes(ASCII);
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService executor = Executors.newCachedThreadPool(new ThreadFactory() {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            final Thread thread =
+                    new Thread(runnable, THREAD_NAME_PREFIX + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+    private final List<Socket> connections = new CopyOnWriteArrayList<>();
+    private final Random random = new Random(42);
+    private volatile FaultProfile profile = FaultProfile.healthy();
+
+    private FaultInjectingServer(final ServerSocket serverSocket) {
+        this.serverSocket = serverSocket;
+    }
+
+    public static FaultInjectingServer start() throws IOException {
+        final FaultInjectingServer server = new FaultInjectingServer(
+                new ServerSocket(0, BACKLOG, InetAddress.getLoopbackAddress()));
+        server.executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                server.acceptConnections();
+            }
+        });
+        return server;
+    }
+
+    public int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    public void setProfile(final FaultProfile profile) {
+        this.profile = profile;
+    }
+
+    // closes the connections left open by silent profiles
+    public void closeConnections() {
+        for (Socket connection : connections) {
+            closeQuietly(connection);
+        }
+        connections.clear();
+    }
+
+    public void stop() throws IOException {
+        serverSocket.close();
+        closeConnections();
+        executor.shutdownNow();
+    }
+
+    private void acceptConnections() {
+        while (!serverSocket.isClosed()) {
+            try {
+                final Socket connection = serverSocket.accept();
+                connections.add(connection);
+                final FaultProfile current = profile;
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        serve(connection, current);
+                    }
+                });
+            } catch (IOException exception) {
+                // the server socket has been closed
+            }
+        }
+    }
+
+    private void serve(final Socket connection, final FaultProfile profile) {
+        try {
+            switch (profile.kind()) {
+                case RESET:
+                    reset(connection);
+                    return;
+                case SILENT:
+                    return;
+                case LOSS:
+                    if (isLost(profile)) {
+                        return;
+                    }
+                    break;
+                case SLOW_ACCEPT:
+                    sleep(profile.delayInMs());
+                    break;
+                default:
+                    break;
+            }
+
+            if (!readRequestHead(connection.getInputStream())) {
+                // plain TCP probes close right after connecting
+                connection.close();
+                return;
+            }
+            if (profile.kind() == FaultProfile.Kind.LATENCY) {
+                sleep(profile.delayInMs());
+            }
+            respond(connection.getOutputStream(), profile);
+            connection.close();
+        } catch (IOException | InterruptedException exception) {
+            closeQuietly(connection);
+        } finally {
+            if (connection.isClosed()) {
+                connections.remove(connection);
+            }
+        }
+    }
+
+    private synchronized boolean isLost(final FaultProfile profile) {
+        return random.nextDouble() < profile.lossRate();
+    }
+
+    private void respond(final OutputStream output, final FaultProfile profile)
+            throws IOException, InterruptedException {
+        switch (profile.kind()) {
+            case SLOW_BODY:
+                output.write(head(profile.status(), "Content-Length: " + SLOW_BODY_LENGTH));
+                output.flush();
+                for (int i = 0; i < SLOW_BODY_LENGTH; i++) {
+                    sleep(profile.delayInMs());
+                    output.write('x');
+                    output.flush();
+                }
+                break;
+            case REDIRECT:
+                output.write(head(profile.status(),
+                        "Location: http://captive.portal.invalid/login\r\nContent-Length: 0"));
+                break;
+            case MOVED:
+                output.write(head(profile.status(),
+                        "Location: /generate_204/\r\nContent-Length: 0"));
+                break;
+            case STATUS:
+                output.write(head(profile.status(), "Content-Length: 0"));
+                break;
+            case PORTAL_PAGE:
+                output.write(head(profile.status(), "Content-Type: text/html\r\nContent-Length: "
+                        + PORTAL_PAGE.length));
+                output.write(PORTAL_PAGE);
+                break;
+            default:
+                output.write(head(204, null));
+                break;
+        }
+        output.flush();
+    }
+
+    private static byte[] head(final int status, final String headers) {
+        final StringBuilder head = new StringBuilder()
+                .append("HTTP/1.1 ").append(status).append(" Fault\r\n")
+                .append("Connection: close\r\n");
+        if (headers != null) {
+            head.append(headers).append("\r\n");
+        }
+        return head.append("\r\n").toString().getBytes(ASCII);
+    }
+
+    // reads until the blank line ending the request head, false when the client closed first
+    private static boolean readRequestHead(final InputStream input) throws IOException {
+        int matched = 0;
+        int read;
+        while ((read = input.read()) != -1) {
+            if (read == '\r' && (matched == 0 || matched == 2)
+                    || read == '\n' && (matched == 1 || matched == 3)) {
+                matched++;
+                if (matched == 4) {
+                    return true;
+                }
+            } else {
+                matched = 0;
+            }
+        }
+        return false;
+    }
+
+    private static void reset(final Socket connection) throws IOException {
+        try {
+            connection.setSoLinger(true, 0);
+        } catch (SocketException exception) {
+            // already closed by the client
+        }
+        connection.close();
+    }
+
+    private static void sleep(final int delayInMs) throws InterruptedException {
+        TimeUnit.MILLISECONDS.sleep(delayInMs);
+    }
+
+    private static void closeQuietly(final Socket connection) {
+        try {
+            connection.close();
+        } catch (IOException exception) {
+            // nothing left to release
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.denno.internetcheck.observing.harness;
+
+// Misbehaviour of the FaultInjectingServer for every accepted connection. Whether a probe
+// against the profile is expected to report the internet as reachable is part of the profile,
+// so the suite can count false positives and false negatives.
+public final class FaultProfile {
+    enum Kind {
+        HEALTHY, LATENCY, SLOW_ACCEPT, SILENT, RESET, SLOW_BODY, STATUS, REDIRECT, MOVED,
+        PORTAL_PAGE, LOSS
+    }
+
+    private final String name;
+    private final Kind kind;
+    private final int delayInMs;
+    private final int status;
+    private final double lossRate;
+    private final boolean online;
+
+    private FaultProfile(final String name, final Kind kind, final int delayInMs,
+                         final int status, final double lossRate, final boolean online) {
+        this.name = name;
+        this.kind = kind;
+        this.delayInMs = delayInMs;
+        this.status = status;
+        this.lossRate = lossRate;
+        this.online = online;
+    }
+
+    public static FaultProfile healthy() {
+        return new FaultProfile("healthy", Kind.HEALTHY, 0, 204, 0, true);
+    }
+
+    // the response is sent after the delay
+    public static FaultProfile latency(final int delayInMs) {
+        return new FaultProfile("latency " + delayInMs + " ms", Kind.LATENCY, delayInMs, 204, 0,
+                true);
+    }
+
+    // the kernel completes the handshake, the server reads the request only after the delay
+    public static FaultProfile slowAccept(final int delayInMs) {
+        return new FaultProfile("slow accept " + delayInMs + " ms", Kind.SLOW_ACCEPT, delayInMs,
+                204, 0, true);
+    }
+
+    // half-open connection: accepted but never answered, like a path which drops all packets
+    // after the handshake
+    public static FaultProfile silent() {
+        return new FaultProfile("silent", Kind.SILENT, 0, 0, 0, false);
+    }
+
+    // a TLS client sees the same as silent: its ClientHello is never answered
+    public static FaultProfile tlsStall() {
+        return new FaultProfile("tls stall", Kind.SILENT, 0, 0, 0, false);
+    }
+
+    public static FaultProfile reset() {
+        return new FaultProfile("reset", Kind.RESET, 0, 0, 0, false);
+    }
+
+    // a 200 response whose headers arrive at once while the body trickles one byte every
+    // delayInMs; probes expecting 200 should not wait for the body
+    public static FaultProfile slowBody(final int delayInMs) {
+        return new FaultProfile("slow body", Kind.SLOW_BODY, delayInMs, 200, 0, true);
+    }
+
+    public static FaultProfile status(final int status) {
+        return new FaultProfile("status " + status, Kind.STATUS, 0, status, 0, false);
+    }
+
+    public static FaultProfile captiveRedirect() {
+        return new FaultProfile("captive redirect", Kind.REDIRECT, 0, 302, 0, false);
+    }
+
+    // the endpoint redirecting within its own host is broken, but no portal
+    public static FaultProfile sameHostRedirect() {
+        return new FaultProfile("same-host redirect", Kind.MOVED, 0, 301, 0, false);
+    }
+
+    // a portal answering with its login page instead of redirecting to it
+    public static FaultProfile captivePage() {
+        return new FaultProfile("captive page", Kind.PORTAL_PAGE, 0, 200, 0, false);
+    }
+
+    // every connection is silent with the given probability, otherwise healthy
+    public static FaultProfile loss(final double lossRate) {
+        return new FaultProfile("loss " + Math.round(lossRate * 100) + " %", Kind.LOSS, 0, 204,
+                lossRate, true);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    Kind kind() {
+        return kind;
+    }
+
+    int delayInMs() {
+        return delayInMs;
+    }
+
+    int status() {
+        return status;
+    }
+
+    double lossRate() {
+        return lossRate;
+    }
+
+    public boolean online() {
+        return online;
+    }
+
+    public boolean captivePortal() {
+        return kind == Kind.REDIRECT || kind == Kind.PORTAL_PAGE;
+    }
+
+    // the status a probe has to expect, 204 unless the profile serves a healthy 200
+    public int expectedStatus() {
+        return kind == Kind.SLOW_BODY ? 200 : 204;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
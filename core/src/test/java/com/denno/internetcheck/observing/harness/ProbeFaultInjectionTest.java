@@ -0,0 +1,239 @@
+package com.denno.internetcheck.observing.harness;
+
+import com.denno.internetcheck.observing.InternetObservingSettings;
+import com.denno.internetcheck.observing.InternetStatus;
+import com.denno.internetcheck.observing.InternetProbingStrategy;
+import com.denno.internetcheck.observing.ProbeResult;
+import com.denno.internetcheck.observing.error.ErrorHandler;
+import com.denno.internetcheck.observing.portal.CaptivePortalCache;
+import com.denno.internetcheck.observing.strategy.NioSocketInternetObservingStrategy;
+import com.denno.internetcheck.observing.strategy.SocketInternetObservingStrategy;
+import com.denno.internetcheck.observing.strategy.WalledGardenInternetObservingStrategy;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.reactivex.Single;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+// Runs every probe strategy against every fault profile and checks, per pair, the detection
+// latency, false positives (reachable while the endpoint is broken) and false negatives, and how
+// many threads the probes added at peak. Socket strategies only see whether a port accepts
+// connections, so only the walled garden strategies are held to the fault verdicts.
+public class ProbeFaultInjectionTest {
+    private static final int TIMEOUT_IN_MS = 300;
+    private static final int PROBES = 5;
+    private static final int LOSS_PROBES = 20;
+    private static final String PATH = "/generate_204";
+
+    private static final List<FaultProfile> PROFILES = Arrays.asList(
+            FaultProfile.healthy(),
+            FaultProfile.latency(100),
+            FaultProfile.slowAccept(100),
+            FaultProfile.loss(0.3),
+            FaultProfile.silent(),
+            FaultProfile.tlsStall(),
+            FaultProfile.reset(),
+            FaultProfile.slowBody(20),
+            FaultProfile.status(500),
+            FaultProfile.captiveRedirect(),
+            FaultProfile.sameHostRedirect(),
+            FaultProfile.captivePage());
+
+    private static FaultInjectingServer server;
+
+    private final ErrorHandler errorHandler = new ErrorHandler() {
+        @Override
+        public void handleError(Exception exception, String message) {
+        }
+    };
+
+    @BeforeClass
+    public static void startServer() throws IOException {
+        server = FaultInjectingServer.start();
+    }
+
+    @AfterClass
+    public static void stopServer() throws IOException {
+        server.stop();
+    }
+
+    @Test
+    public void shouldReportProbeBehaviourUnderFaults() throws Exception {
+        final List<Cell> cells = new ArrayList<>();
+        for (FaultProfile profile : PROFILES) {
+            // a fresh portal cache per cell keeps verdicts from leaking into the next profile
+            cells.add(run("walled garden",
+                    new WalledGardenInternetObservingStrategy(false, portalCache()),
+                    httpHost(profile), profile));
+            cells.add(run("walled garden keep-alive",
+                    new WalledGardenInternetObservingStrategy(true, portalCache()),
+                    httpHost(profile), profile));
+            cells.add(run("socket", new SocketInternetObservingStrategy(), "127.0.0.1", profile));
+            cells.add(run("nio socket", new NioSocketInternetObservingStrategy(), "127.0.0.1",
+                    profile));
+        }
+
+        for (Cell cell : cells) {
+            // connect and read each may take up to the timeout
+            assertTrue(cell + " took too long", cell.maxLatencyInMs <= 2 * TIMEOUT_IN_MS + 500);
+            // blocking probes run on the subscribing thread, only the keep-alive cleaner of
+            // HttpURLConnection may come on top; nio probes add the selector loop and io workers
+            // resolving the host and delivering the result
+            final int maxAddedThreads = cell.strategy.equals("nio socket") ? 3 : 1;
+            assertTrue(cell + " added threads", cell.addedThreads <= maxAddedThreads);
+            if (cell.profile.name().equals("healthy")) {
+                assertEquals(cell + " false negatives", 0, cell.falseNegatives);
+            }
+            if (cell.strategy.equals("walled garden") && !cell.profile.name().startsWith("loss")) {
+                assertEquals(cell + " false positives", 0, cell.falsePositives);
+                assertEquals(cell + " false negatives", 0, cell.falseNegatives);
+            }
+            if (cell.strategy.startsWith("walled garden")) {
+                final int expectedPortals = cell.profile.captivePortal() ? cell.probes() : 0;
+                assertEquals(cell + " captive portals", expectedPortals, cell.captivePortals);
+            }
+        }
+    }
+
+    // portal verdicts are only cached on a known network
+    private static CaptivePortalCache portalCache() {
+        final CaptivePortalCache cache = new CaptivePortalCache(60000);
+        cache.networkChanged("fault server");
+        return cache;
+    }
+
+    // TLS stalls need an https endpoint, the server never answers the handshake
+    private static String httpHost(final FaultProfile profile) {
+        final String scheme = profile.name().equals("tls stall") ? "https" : "http";
+        return scheme + "://127.0.0.1" + PATH;
+    }
+
+    private Cell run(final String strategyName, final InternetProbingStrategy strategy,
+                     final String host, final FaultProfile profile) throws InterruptedException {
+        server.setProfile(profile);
+        final InternetObservingSettings settings = InternetObservingSettings.builder()
+                .strategy(strategy)
+                .host(host)
+                .port(server.port())
+                .timeout(TIMEOUT_IN_MS)
+                .httpResponse(profile.expectedStatus())
+                .errorHandler(errorHandler)
+                .build();
+        final Single<ProbeResult> probe = strategy.probeInternetConnectivity(settings);
+
+        final ThreadSampler sampler = ThreadSampler.start();
+        final Cell cell = new Cell(strategyName, profile);
+        final int probes = profile.lossRate() > 0 ? LOSS_PROBES : PROBES;
+        for (int i = 0; i < probes; i++) {
+            final long start = System.nanoTime();
+            final ProbeResult result = probe.blockingGet();
+            cell.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), result.status());
+        }
+        cell.addedThreads = sampler.stop();
+        server.closeConnections();
+        return cell;
+    }
+
+    private static final class Cell {
+        private final String strategy;
+        private final FaultProfile profile;
+        private final List<Long> latencies = new ArrayList<>();
+        private long maxLatencyInMs;
+        private int falsePositives;
+        private int falseNegatives;
+        private int captivePortals;
+        private int addedThreads;
+
+        Cell(final String strategy, final FaultProfile profile) {
+            this.strategy = strategy;
+            this.profile = profile;
+        }
+
+        void add(final long latencyInMs, final InternetStatus status) {
+            final boolean reachable = status == InternetStatus.ONLINE;
+            if (status == InternetStatus.CAPTIVE_PORTAL) {
+                captivePortals++;
+            }
+            latencies.add(latencyInMs);
+            maxLatencyInMs = Math.max(maxLatencyInMs, latencyInMs);
+            if (reachable && !profile.online()) {
+                falsePositives++;
+            } else if (!reachable && profile.online() && profile.lossRate() == 0) {
+                falseNegatives++;
+            }
+        }
+
+        int probes() {
+            return latencies.size();
+        }
+
+        @Override
+        public String toString() {
+            return strategy + " / " + profile;
+        }
+    }
+
+    // peak number of live threads not belonging to the fault server, relative to the start
+    private static final class ThreadSampler implements Runnable {
+        private final AtomicBoolean running = new AtomicBoolean(true);
+        private final AtomicInteger peak = new AtomicInteger();
+        private final int baseline = countProbeThreads();
+        private Thread thread;
+
+        static ThreadSampler start() {
+            final ThreadSampler sampler = new ThreadSampler();
+            sampler.thread = new Thread(sampler, "thread-sampler");
+            sampler.thread.setDaemon(true);
+            sampler.thread.start();
+            return sampler;
+        }
+
+        @Override
+        public void run() {
+            while (running.get()) {
+                final int count = countProbeThreads();
+                if (count > peak.get()) {
+                    peak.set(count);
+                }
+                try {
+                    TimeUnit.MILLISECONDS.sleep(5);
+                } catch (InterruptedException exception) {
+                    return;
+                }
+            }
+        }
+
+        int stop() throws InterruptedException {
+            running.set(false);
+            thread.join();
+            return Math.max(0, peak.get() - baseline);
+        }
+
+        private static int countProbeThreads() {
+            int count = 0;
+            for (Thread thread : Thread.getAllStackTraces().keySet()) {
+                final String name = thread.getName();
+                // housekeeping threads of the Rx schedulers are started once per process
+                if (!name.startsWith(FaultInjectingServer.THREAD_NAME_PREFIX)
+                        && !name.equals("thread-sampler")
+                        && !name.startsWith("RxSchedulerPurge")
+                        && !name.startsWith("RxCachedWorkerPoolEvictor")) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.denno.internetcheck.observing.strategy;
+
+import com.denno.internetcheck.observing.ThroughputEstimate;
+import com.denno.internetcheck.observing.error.ErrorHandler;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ThroughputProbeTest {
+    private static final int BODY_SIZE = 512 * 1024;
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private final ErrorHandler errorHandler = new ErrorHandler() {
+        @Override
+        public void handleError(Exception exception, String message) {
+        }
+    };
+    private HttpServer server;
+
+    @Before
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/download", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                requests.incrementAndGet();
+                exchange.sendResponseHeaders(200, BODY_SIZE);
+                final OutputStream body = exchange.getResponseBody();
+                try {
+                    body.write(new byte[BODY_SIZE]);
+                } catch (IOException exception) {
+                    // the probe stops reading after maxBytes
+                } finally {
+                    exchange.close();
+                }
+            }
+        });
+        server.createContext("/missing", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                requests.incrementAndGet();
+                exchange.sendResponseHeaders(404, -1);
+                exchange.close();
+            }
+        });
+        server.start();
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    public void shouldEstimateThroughputFromBoundedDownload() {
+        final ThroughputProbe probe = createProbe("/download", 64 * 1024, 0);
+
+        final ThroughputEstimate estimate = probe.estimateThroughput().blockingGet();
+
+        assertTrue(estimate.fresh());
+        assertTrue(estimate.known());
+        assertEquals(64 * 1024, estimate.sampleBytes());
+        assertTrue(estimate.bytesPerSecond() > 0);
+    }
+
+    @Test
+    public void shouldSmoothConsecutiveSamples() {
+        final ThroughputProbe probe = createProbe("/download", 64 * 1024, 0);
+
+        final ThroughputEstimate first = probe.estimateThroughput().blockingGet();
+        final ThroughputEstimate second = probe.estimateThroughput().blockingGet();
+
+        final double expected = 0.5 * second.sampleBytesPerSecond() + 0.5 * first.bytesPerSecond();
+        assertEquals(expected, second.bytesPerSecond(), 1e-6);
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    public void shouldNotDownloadMoreOftenThanMinInterval() {
+        final ThroughputProbe probe = createProbe("/download", 64 * 1024, 60000);
+
+        final ThroughputEstimate first = probe.estimateThroughput().blockingGet();
+        final ThroughputEstimate second = probe.estimateThroughput().blockingGet();
+
+        assertTrue(first.fresh());
+        assertFalse(second.fresh());
+        assertEquals(first.bytesPerSecond(), second.bytesPerSecond(), 0);
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    public void shouldKeepUnknownEstimateOnErrorResponse() {
+        final ThroughputProbe probe = createProbe("/missing", 64 * 1024, 0);
+
+        final ThroughputEstimate estimate = probe.estimateThroughput().blockingGet();
+
+        assertFalse(estimate.fresh());
+        assertFalse(estimate.known());
+    }
+
+    private ThroughputProbe createProbe(final String path, final int maxBytes,
+                                        final int minInterval) {
+        return ThroughputProbe.builder()
+                .endpoint("http://127.0.0.1" + path)
+                .port(server.getAddress().getPort())
+                .maxBytes(maxBytes)
+                .minInterval(minInterval)
+                .smoothing(0.5)
+                .errorHandler(errorHandler)
+                .build();
+    }
+}
@@ -0,0 +1,17 @@
+package com.denno.internetcheck;
+
+import android.os.Build;
+
+public final class AndroidPreconditions {
+
+    private AndroidPreconditions() {
+    }
+
+    public static boolean isAtLeastAndroidLollipop() {
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP;
+    }
+
+    public static boolean isAtLeastAndroidMarshmallow() {
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.M;
+    }
+}
@@ -10,22 +10,34 @@ import androidx.annotation.NonNull;
 import androidx.annotation.RequiresApi;
 
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 @RequiresApi(api = Build.VERSION_CODES.CUPCAKE)
 public final class Connectivity {
     static final int UNKNOWN_TYPE = -1;
     static final int UNKNOWN_SUB_TYPE = -1;
-    private NetworkInfo.State state;
-    private NetworkInfo.DetailedState detailedState;
-    private int type;
-    private int subType;
-    private boolean available;
-    private boolean failover;
-    private boolean roaming;
-    private String typeName;
-    private String subTypeName;
-    private String reason;
-    private String extraInfo;
+    private static final int INTERNED_SNAPSHOTS = 32;
+
+    // snapshots are immutable, so equal ones are shared; a flapping network keeps producing
+    // the same few states, which then compare by reference in ConnectivityChangeDetector.
+    // The table is direct-mapped: a snapshot lives in the slot its fields hash to and a
+    // colliding one replaces it, so lookups neither lock nor allocate
+    private static final AtomicReferenceArray<Connectivity> INTERNED =
+            new AtomicReferenceArray<>(INTERNED_SNAPSHOTS);
+
+    private final NetworkInfo.State state;
+    private final NetworkInfo.DetailedState detailedState;
+    private final int type;
+    private final int subType;
+    private final boolean available;
+    private final boolean failover;
+    private final boolean roaming;
+    private final String typeName;
+    private final String subTypeName;
+    private final String reason;
+    private final String extraInfo;
+    private final int hashCode;
+    private final long fingerprint;
 
     public static Connectivity create() {
         return builder().build();
@@ -53,33 +65,68 @@ public final class Connectivity {
     }
 
     private static Connectivity create(NetworkInfo networkInfo) {
-        return new Builder()
-                .state(networkInfo.getState())
-                .detailedState(networkInfo.getDetailedState())
-                .type(networkInfo.getType())
-                .subType(networkInfo.getSubtype())
-                .available(networkInfo.isAvailable())
-                .failover(networkInfo.isFailover())
-                .roaming(networkInfo.isRoaming())
-                .typeName(networkInfo.getTypeName())
-                .subTypeName(networkInfo.getSubtypeName())
-                .reason(networkInfo.getReason())
-                .extraInfo(networkInfo.getExtraInfo())
-                .build();
+        return intern(networkInfo.getState(), networkInfo.getDetailedState(),
+                networkInfo.getType(), networkInfo.getSubtype(), networkInfo.isAvailable(),
+                networkInfo.isFailover(), networkInfo.isRoaming(), networkInfo.getTypeName(),
+                networkInfo.getSubtypeName(), networkInfo.getReason(),
+                networkInfo.getExtraInfo());
+    }
+
+    // the snapshot is looked up by its fields and only constructed when it is not interned
+    private static Connectivity intern(NetworkInfo.State state,
+                                       NetworkInfo.DetailedState detailedState, int type,
+                                       int subType, boolean available, boolean failover,
+                                       boolean roaming, String typeName, String subTypeName,
+                                       String reason, String extraInfo) {
+        final long fingerprint = computeFingerprint(state, detailedState, type, subType,
+                available, failover, roaming);
+        final int slot = slot(fingerprint, typeName, subTypeName, reason, extraInfo);
+        final Connectivity interned = INTERNED.get(slot);
+        if (interned != null && interned.fingerprint == fingerprint
+                && interned.hasNames(typeName, subTypeName, reason, extraInfo)) {
+            return interned;
+        }
+
+        final Connectivity created = new Connectivity(state, detailedState, type, subType,
+                available, failover, roaming, typeName, subTypeName, reason, extraInfo);
+        INTERNED.set(slot, created);
+        return created;
+    }
+
+    private static int slot(long fingerprint, String typeName, String subTypeName,
+                            String reason, String extraInfo) {
+        int result = (int) (fingerprint ^ (fingerprint >>> 32));
+        result = 31 * result + (typeName != null ? typeName.hashCode() : 0);
+        result = 31 * result + (subTypeName != null ? subTypeName.hashCode() : 0);
+        result = 31 * result + (reason != null ? reason.hashCode() : 0);
+        result = 31 * result + (extraInfo != null ? extraInfo.hashCode() : 0);
+        return (result ^ (result >>> 16)) & (INTERNED_SNAPSHOTS - 1);
     }
 
     private Connectivity(Builder builder) {
-        state = builder.state;
-        detailedState = builder.detailedState;
-        type = builder.type;
-        subType = builder.subType;
-        available = builder.available;
-        failover = builder.failover;
-        roaming = builder.roaming;
-        typeName = builder.typeName;
-        subTypeName = builder.subTypeName;
-        reason = builder.reason;
-        extraInfo = builder.extraInfo;
+        this(builder.state, builder.detailedState, builder.type, builder.subType,
+                builder.available, builder.failover, builder.roaming, builder.typeName,
+                builder.subTypeName, builder.reason, builder.extraInfo);
+    }
+
+    private Connectivity(NetworkInfo.State state, NetworkInfo.DetailedState detailedState,
+                         int type, int subType, boolean available, boolean failover,
+                         boolean roaming, String typeName, String subTypeName, String reason,
+                         String extraInfo) {
+        this.state = state;
+        this.detailedState = detailedState;
+        this.type = type;
+        this.subType = subType;
+        this.available = available;
+        this.failover = failover;
+        this.roaming = roaming;
+        this.typeName = typeName;
+        this.subTypeName = subTypeName;
+        this.reason = reason;
+        this.extraInfo = extraInfo;
+        this.hashCode = computeHashCode();
+        this.fingerprint = computeFingerprint(state, detailedState, type, subType, available,
+                failover, roaming);
     }
 
     private Connectivity() {
@@ -178,6 +225,39 @@ public final class Connectivity {
         return builder().extraInfo(extraInfo);
     }
 
+    // all non-string fields packed into one long: bit 0 available, bit 1 failover, bit 2 roaming,
+    // bits 3-6 state, bits 7-11 detailed state (ordinal + 1, 0 when null), bits 16-39 type and
+    // bits 40-63 subtype, which keeps every network and telephony type constant intact
+    public long fingerprint() {
+        return fingerprint;
+    }
+
+    private static long computeFingerprint(NetworkInfo.State state,
+                                           NetworkInfo.DetailedState detailedState, int type,
+                                           int subType, boolean available, boolean failover,
+                                           boolean roaming) {
+        long result = (available ? 1L : 0L) | (failover ? 1L << 1 : 0L) | (roaming ? 1L << 2 : 0L);
+        result |= (long) (state != null ? state.ordinal() + 1 : 0) << 3;
+        result |= (long) (detailedState != null ? detailedState.ordinal() + 1 : 0) << 7;
+        result |= (type & 0xFFFFFFL) << 16;
+        result |= (subType & 0xFFFFFFL) << 40;
+        return result;
+    }
+
+    // compares the fields which are not part of the fingerprint
+    boolean hasSameNames(Connectivity that) {
+        return hasNames(that.typeName, that.subTypeName, that.reason, that.extraInfo);
+    }
+
+    @SuppressLint("NewApi")
+    private boolean hasNames(String typeName, String subTypeName, String reason,
+                             String extraInfo) {
+        return Objects.equals(this.typeName, typeName)
+                && Objects.equals(this.subTypeName, subTypeName)
+                && Objects.equals(this.reason, reason)
+                && Objects.equals(this.extraInfo, extraInfo);
+    }
+
     @SuppressLint("NewApi")
     @Override
     public boolean equals(Object o) {
@@ -190,6 +270,9 @@ public final class Connectivity {
 
         Connectivity that = (Connectivity) o;
 
+        if (hashCode != that.hashCode) {
+            return false;
+        }
         if (type != that.type) {
             return false;
         }
@@ -211,7 +294,7 @@ public final class Connectivity {
         if (detailedState != that.detailedState) {
             return false;
         }
-        if (!typeName.equals(that.typeName)) {
+        if (!Objects.equals(typeName, that.typeName)) {
             return false;
         }
         if (!Objects.equals(subTypeName, that.subTypeName)) {
@@ -226,14 +309,18 @@ public final class Connectivity {
 
     @Override
     public int hashCode() {
-        int result = state.hashCode();
+        return hashCode;
+    }
+
+    private int computeHashCode() {
+        int result = state != null ? state.hashCode() : 0;
         result = 31 * result + (detailedState != null ? detailedState.hashCode() : 0);
         result = 31 * result + type;
         result = 31 * result + subType;
         result = 31 * result + (available ? 1 : 0);
         result = 31 * result + (failover ? 1 : 0);
         result = 31 * result + (roaming ? 1 : 0);
-        result = 31 * result + typeName.hashCode();
+        result = 31 * result + (typeName != null ? typeName.hashCode() : 0);
         result = 31 * result + (subTypeName != null ? subTypeName.hashCode() : 0);
         result = 31 * result + (reason != null ? reason.hashCode() : 0);
         result = 31 * result + (extraInfo != null ? extraInfo.hashCode() : 0);
@@ -345,7 +432,8 @@ public final class Connectivity {
         }
 
         public Connectivity build() {
-            return new Connectivity(this);
+            return intern(state, detailedState, type, subType, available, failover, roaming,
+                    typeName, subTypeName, reason, extraInfo);
         }
     }
 }
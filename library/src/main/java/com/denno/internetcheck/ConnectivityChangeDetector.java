@@ -0,0 +1,26 @@
+package com.denno.internetcheck;
+
+import io.reactivex.annotations.NonNull;
+import io.reactivex.functions.BiPredicate;
+
+// Comparer for distinctUntilChanged() which tells whether two snapshots describe the same
+// state. Interned snapshots match by reference and differing states almost always differ in
+// their fingerprints, so the strings are only compared when the fingerprints are equal.
+public final class ConnectivityChangeDetector implements BiPredicate<Connectivity, Connectivity> {
+    private static final ConnectivityChangeDetector INSTANCE = new ConnectivityChangeDetector();
+
+    private ConnectivityChangeDetector() {
+    }
+
+    public static ConnectivityChangeDetector getInstance() {
+        return INSTANCE;
+    }
+
+    @Override
+    public boolean test(@NonNull Connectivity previous, @NonNull Connectivity current) {
+        if (previous == current) {
+            return true;
+        }
+        return previous.fingerprint() == current.fingerprint() && previous.hasSameNames(current);
+    }
+}
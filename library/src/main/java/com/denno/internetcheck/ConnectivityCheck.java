@@ -0,0 +1,240 @@
+package com.denno.internetcheck;
+
+import android.Manifest;
+import android.content.Context;
+
+import androidx.annotation.RequiresPermission;
+import com.jakewharton.nopen.annotation.Open;
+import com.denno.internetcheck.observing.InternetObservingSettings;
+import com.denno.internetcheck.observing.InternetProbeEngine;
+import com.denno.internetcheck.observing.InternetProbingStrategy;
+import com.denno.internetcheck.observing.NetworkEvents;
+import com.denno.internetcheck.observing.InternetObservingStrategy;
+import com.denno.internetcheck.observing.NetworkObservingStrategy;
+import com.denno.internetcheck.observing.NetworkSetChange;
+import com.denno.internetcheck.observing.NetworkTracker;
+import com.denno.internetcheck.observing.ProbeResult;
+import com.denno.internetcheck.observing.error.ErrorHandler;
+import com.denno.internetcheck.observing.metrics.ProbeMetrics;
+import com.denno.internetcheck.observing.strategy.LollipopNetworkObservingStrategy;
+import com.denno.internetcheck.observing.strategy.MarshmallowNetworkObservingStrategy;
+import com.denno.internetcheck.observing.strategy.PreLollipopNetworkObservingStrategy;
+
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.BackpressureStrategy;
+import io.reactivex.Observable;
+import io.reactivex.Single;
+import io.reactivex.SingleSource;
+import io.reactivex.annotations.NonNull;
+import io.reactivex.functions.Function;
+import io.reactivex.schedulers.Schedulers;
+
+@Open public class ConnectivityCheck {
+  public final static String LOG_TAG = "ConnectivityCheck";
+
+  protected ConnectivityCheck() {
+  }
+
+  public static ConnectivityCheck create() {
+    return new ConnectivityCheck();
+  }
+
+  @RequiresPermission(Manifest.permission.ACCESS_NETWORK_STATE)
+  public static Observable<Connectivity> observeNetworkConnectivity(final Context context) {
+    Preconditions.checkNotNull(context, "context == null");
+    return ConnectivityMonitor.getInstance(context).observe();
+  }
+
+  static NetworkObservingStrategy defaultNetworkObservingStrategy() {
+    if (AndroidPreconditions.isAtLeastAndroidMarshmallow()) {
+      return new MarshmallowNetworkObservingStrategy();
+    } else if (AndroidPreconditions.isAtLeastAndroidLollipop()) {
+      return new LollipopNetworkObservingStrategy();
+    } else {
+      return new PreLollipopNetworkObservingStrategy();
+    }
+  }
+
+  @RequiresPermission(Manifest.permission.ACCESS_NETWORK_STATE)
+  public static Observable<Connectivity> observeNetworkConnectivity(final Context context,
+      final NetworkObservingStrategy strategy) {
+    Preconditions.checkNotNull(context, "context == null");
+    Preconditions.checkNotNull(strategy, "strategy == null");
+    return strategy.observeNetworkConnectivity(context);
+  }
+
+  // the stabilizer settles the stream once at the source, so subscribers need no debounce;
+  // subscribers passing the same stabilizer share one stabilized stream
+  @RequiresPermission(Manifest.permission.ACCESS_NETWORK_STATE)
+  public static Observable<Connectivity> observeNetworkConnectivity(final Context context,
+      final ConnectivityStabilizer stabilizer) {
+    Preconditions.checkNotNull(context, "context == null");
+    Preconditions.checkNotNull(stabilizer, "stabilizer == null");
+    return ConnectivityMonitor.getInstance(context).observe(stabilizer);
+  }
+
+  @RequiresPermission(Manifest.permission.ACCESS_NETWORK_STATE)
+  public static Observable<Connectivity> observeNetworkConnectivity(final Context context,
+      final NetworkObservingStrategy strategy, final ConnectivityStabilizer stabilizer) {
+    Preconditions.checkNotNull(context, "context == null");
+    Preconditions.checkNotNull(strategy, "strategy == null");
+    Preconditions.checkNotNull(stabilizer, "stabilizer == null");
+    return strategy.observeNetworkConnectivity(context).compose(stabilizer);
+  }
+
+  // every network with internet capability instead of only the default one
+  @RequiresPermission(Manifest.permission.ACCESS_NETWORK_STATE)
+  public static Observable<NetworkSetChange> observeNetworks(final Context context) {
+    return NetworkTracker.observe(context);
+  }
+
+  @RequiresPermission(Manifest.permission.INTERNET)
+  public static Observable<Boolean> observeInternetConnectivity() {
+    return observeInternetConnectivity(InternetObservingSettings.create());
+  }
+
+  @RequiresPermission(Manifest.permission.INTERNET)
+  public static Observable<Boolean> observeInternetConnectivity(
+      InternetObservingSettings settings) {
+    Preconditions.checkNotNull(settings, "settings == null");
+    checkStrategyIsNotNull(settings.strategy());
+    return InternetProbeEngine.getInstance().observeInternetConnectivity(settings);
+  }
+
+  @RequiresPermission(allOf = {
+      Manifest.permission.ACCESS_NETWORK_STATE, Manifest.permission.INTERNET
+  })
+  public static Observable<Boolean> observeInternetConnectivityOnNetworkChanges(
+      final Context context) {
+    return observeInternetConnectivityOnNetworkChanges(context,
+        InternetObservingSettings.create());
+  }
+
+  // probes right after every relevant network callback and otherwise only every
+  // safetyNetInterval; blocking probes cannot be interrupted, so events arriving during a probe
+  // are coalesced into a single follow-up probe instead of starting one each
+  @RequiresPermission(allOf = {
+      Manifest.permission.ACCESS_NETWORK_STATE, Manifest.permission.INTERNET
+  })
+  public static Observable<Boolean> observeInternetConnectivityOnNetworkChanges(
+      final Context context, final InternetObservingSettings settings) {
+    Preconditions.checkNotNull(context, "context == null");
+    Preconditions.checkNotNull(settings, "settings == null");
+    checkStrategyIsNotNull(settings.strategy());
+    Preconditions.checkGreaterOrEqualToZero(settings.initialInterval(),
+        "initialIntervalInMs is not a positive number");
+    Preconditions.checkGreaterThanZero(settings.safetyNetInterval(),
+        "safetyNetIntervalInMs is not a positive number");
+
+    final Single<Boolean> probe = InternetProbeEngine.createCheck(settings)
+        .subscribeOn(Schedulers.io());
+
+    final Observable<Object> triggers = Observable.<Object>merge(
+        Observable.timer(settings.initialInterval(), TimeUnit.MILLISECONDS),
+        NetworkEvents.observe(context),
+        Observable.interval(settings.safetyNetInterval(), TimeUnit.MILLISECONDS));
+
+    return triggers.toFlowable(BackpressureStrategy.LATEST)
+        .concatMapSingle(new Function<Object, SingleSource<Boolean>>() {
+          @Override public SingleSource<Boolean> apply(@NonNull Object trigger) {
+            return probe;
+          }
+        }, 1)
+        .toObservable()
+        .distinctUntilChanged();
+  }
+
+  @RequiresPermission(Manifest.permission.INTERNET)
+  protected static Observable<Boolean> observeInternetConnectivity(
+          final InternetObservingStrategy strategy, final int initialIntervalInMs,
+          final int intervalInMs, final String host, final int port, final int timeoutInMs,
+          final int httpResponse, final ErrorHandler errorHandler) {
+    checkStrategyIsNotNull(strategy);
+    return strategy.observeInternetConnectivity(initialIntervalInMs, intervalInMs, host, port,
+        timeoutInMs, httpResponse, errorHandler);
+  }
+
+  @RequiresPermission(Manifest.permission.INTERNET)
+  public static Single<Boolean> checkInternetConnectivity() {
+    InternetObservingSettings settings = InternetObservingSettings.create();
+    return checkInternetConnectivity(settings.strategy(), settings.host(), settings.port(),
+        settings.timeout(), settings.httpResponse(), settings.errorHandler());
+  }
+
+  @RequiresPermission(Manifest.permission.INTERNET)
+  public static Single<Boolean> checkInternetConnectivity(InternetObservingSettings settings) {
+    Preconditions.checkNotNull(settings, "settings == null");
+    checkStrategyIsNotNull(settings.strategy());
+    return InternetProbeEngine.createCheck(settings);
+  }
+
+  @RequiresPermission(allOf = {
+      Manifest.permission.ACCESS_NETWORK_STATE, Manifest.permission.INTERNET
+  })
+  public static Single<Boolean> checkInternetConnectivity(final Context context,
+      final int maxAgeInMs) {
+    return checkInternetConnectivity(context, InternetObservingSettings.create(), maxAgeInMs);
+  }
+
+  // concurrent callers share one probe and results younger than maxAgeInMs are reused;
+  // the network is observed while results are cached, they are dropped when it changes
+  @RequiresPermission(allOf = {
+      Manifest.permission.ACCESS_NETWORK_STATE, Manifest.permission.INTERNET
+  })
+  public static Single<Boolean> checkInternetConnectivity(final Context context,
+      final InternetObservingSettings settings, final int maxAgeInMs) {
+    Preconditions.checkNotNull(context, "context == null");
+    Preconditions.checkNotNull(settings, "settings == null");
+    checkStrategyIsNotNull(settings.strategy());
+    return InternetProbeEngine.getInstance().checkInternetConnectivity(settings, maxAgeInMs,
+        ConnectivityMonitor.getInstance(context).observe());
+  }
+
+  @RequiresPermission(Manifest.permission.INTERNET)
+  protected static Single<Boolean> checkInternetConnectivity(
+          final InternetObservingStrategy strategy,
+          final String host, final int port, final int timeoutInMs, final int httpResponse,
+          final ErrorHandler errorHandler) {
+    checkStrategyIsNotNull(strategy);
+    return strategy.checkInternetConnectivity(host, port, timeoutInMs, httpResponse, errorHandler);
+  }
+
+  @RequiresPermission(Manifest.permission.INTERNET)
+  public static Observable<ProbeResult> observeInternetProbeResults(
+      final InternetObservingSettings settings) {
+    Preconditions.checkNotNull(settings, "settings == null");
+    checkStrategyIsNotNull(settings.strategy());
+
+    if (settings.strategy() instanceof InternetProbingStrategy) {
+      return ((InternetProbingStrategy) settings.strategy()).observeProbeResults(settings);
+    }
+
+    final Single<ProbeResult> probe = probeInternetConnectivity(settings);
+    return Observable.interval(settings.initialInterval(), settings.interval(),
+        TimeUnit.MILLISECONDS, Schedulers.io())
+        .concatMapSingle(new Function<Long, SingleSource<ProbeResult>>() {
+          @Override public SingleSource<ProbeResult> apply(@NonNull Long tick) {
+            return probe;
+          }
+        });
+  }
+
+  @RequiresPermission(Manifest.permission.INTERNET)
+  public static Single<ProbeResult> probeInternetConnectivity(
+      final InternetObservingSettings settings) {
+    Preconditions.checkNotNull(settings, "settings == null");
+    checkStrategyIsNotNull(settings.strategy());
+
+    if (settings.strategy() instanceof InternetProbingStrategy) {
+      return ((InternetProbingStrategy) settings.strategy()).probeInternetConnectivity(settings);
+    }
+
+    // strategies reporting only a Boolean get the latency measured around their check
+    return ProbeMetrics.measure(InternetProbeEngine.timedCheck(settings), settings);
+  }
+
+  private static void checkStrategyIsNotNull(InternetObservingStrategy strategy) {
+    Preconditions.checkNotNull(strategy, "strategy == null");
+  }
+}
@@ -0,0 +1,225 @@
+package com.denno.internetcheck;
+
+import android.net.NetworkInfo;
+
+import io.reactivex.annotations.NonNull;
+import io.reactivex.functions.Predicate;
+
+// Connectivity predicate compiled into bitmasks. Constraints on the same field of one builder
+// are alternatives, constraints on different fields must all hold, so a built matcher tests
+// each field with a single mask lookup. Matchers compose with and(), or() and negate(); and()
+// of two compiled matchers is merged into one set of masks.
+public abstract class ConnectivityMatcher implements Predicate<Connectivity> {
+    // network types and subtypes are indexed by value + 1 so UNKNOWN_TYPE gets bit 0,
+    // the last bit stands for all values outside of the indexed range
+    static final int TYPE_INDEXES = Long.SIZE;
+    static final int OTHER_TYPE_INDEX = TYPE_INDEXES - 1;
+    static final long ALL_TYPES = -1L;
+    private static final int ALL_STATES = -1;
+
+    ConnectivityMatcher() {
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public abstract boolean test(@NonNull Connectivity connectivity);
+
+    public ConnectivityMatcher and(final ConnectivityMatcher other) {
+        Preconditions.checkNotNull(other, "other == null");
+        return new And(this, other);
+    }
+
+    public ConnectivityMatcher or(final ConnectivityMatcher other) {
+        Preconditions.checkNotNull(other, "other == null");
+        return new Or(this, other);
+    }
+
+    public ConnectivityMatcher negate() {
+        return new Not(this);
+    }
+
+    static int typeIndex(final int type) {
+        final int index = type + 1;
+        return index >= 0 && index < OTHER_TYPE_INDEX ? index : OTHER_TYPE_INDEX;
+    }
+
+    private static final class Compiled extends ConnectivityMatcher {
+        private final int states;
+        private final int detailedStates;
+        private final long types;
+        private final long subTypes;
+        private final int roaming;
+        private final int failover;
+
+        Compiled(final int states, final int detailedStates, final long types,
+                 final long subTypes, final int roaming, final int failover) {
+            this.states = states;
+            this.detailedStates = detailedStates;
+            this.types = types;
+            this.subTypes = subTypes;
+            this.roaming = roaming;
+            this.failover = failover;
+        }
+
+        @Override
+        public boolean test(@NonNull Connectivity connectivity) {
+            return (states & stateBit(connectivity.state())) != 0
+                    && (detailedStates & detailedStateBit(connectivity.detailedState())) != 0
+                    && (types & 1L << typeIndex(connectivity.type())) != 0
+                    && (subTypes & 1L << typeIndex(connectivity.subType())) != 0
+                    && (roaming & flagBit(connectivity.roaming())) != 0
+                    && (failover & flagBit(connectivity.failover())) != 0;
+        }
+
+        @Override
+        public ConnectivityMatcher and(final ConnectivityMatcher other) {
+            if (!(other instanceof Compiled)) {
+                return super.and(other);
+            }
+            final Compiled that = (Compiled) other;
+            return new Compiled(states & that.states, detailedStates & that.detailedStates,
+                    types & that.types, subTypes & that.subTypes, roaming & that.roaming,
+                    failover & that.failover);
+        }
+
+        // bit 0 is reserved for a null state
+        private static int stateBit(final Enum<?> state) {
+            return 1 << (state != null ? state.ordinal() + 1 : 0);
+        }
+
+        private static int detailedStateBit(final Enum<?> detailedState) {
+            return stateBit(detailedState);
+        }
+
+        private static int flagBit(final boolean flag) {
+            return flag ? 2 : 1;
+        }
+    }
+
+    private static final class And extends ConnectivityMatcher {
+        private final ConnectivityMatcher left;
+        private final ConnectivityMatcher right;
+
+        And(final ConnectivityMatcher left, final ConnectivityMatcher right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public boolean test(@NonNull Connectivity connectivity) {
+            return left.test(connectivity) && right.test(connectivity);
+        }
+    }
+
+    private static final class Or extends ConnectivityMatcher {
+        private final ConnectivityMatcher left;
+        private final ConnectivityMatcher right;
+
+        Or(final ConnectivityMatcher left, final ConnectivityMatcher right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public boolean test(@NonNull Connectivity connectivity) {
+            return left.test(connectivity) || right.test(connectivity);
+        }
+    }
+
+    private static final class Not extends ConnectivityMatcher {
+        private final ConnectivityMatcher matcher;
+
+        Not(final ConnectivityMatcher matcher) {
+            this.matcher = matcher;
+        }
+
+        @Override
+        public boolean test(@NonNull Connectivity connectivity) {
+            return !matcher.test(connectivity);
+        }
+
+        @Override
+        public ConnectivityMatcher negate() {
+            return matcher;
+        }
+    }
+
+    public static final class Builder {
+        private static final int STATE = 1;
+        private static final int DETAILED_STATE = 1 << 1;
+        private static final int TYPE = 1 << 2;
+        private static final int SUB_TYPE = 1 << 3;
+
+        private int constrained;
+        private int states;
+        private int detailedStates;
+        private long types;
+        private long subTypes;
+        private int roaming;
+        private int failover;
+
+        Builder() {
+        }
+
+        public Builder state(final NetworkInfo.State... states) {
+            for (NetworkInfo.State state : states) {
+                this.states |= Compiled.stateBit(state);
+            }
+            constrained |= STATE;
+            return this;
+        }
+
+        public Builder detailedState(final NetworkInfo.DetailedState... detailedStates) {
+            for (NetworkInfo.DetailedState detailedState : detailedStates) {
+                this.detailedStates |= Compiled.detailedStateBit(detailedState);
+            }
+            constrained |= DETAILED_STATE;
+            return this;
+        }
+
+        public Builder type(final int... types) {
+            for (int type : types) {
+                this.types |= 1L << checkedTypeIndex(type, "type");
+            }
+            constrained |= TYPE;
+            return this;
+        }
+
+        public Builder subType(final int... subTypes) {
+            for (int subType : subTypes) {
+                this.subTypes |= 1L << checkedTypeIndex(subType, "subType");
+            }
+            constrained |= SUB_TYPE;
+            return this;
+        }
+
+        public Builder roaming(final boolean roaming) {
+            this.roaming = Compiled.flagBit(roaming);
+            return this;
+        }
+
+        public Builder failover(final boolean failover) {
+            this.failover = Compiled.flagBit(failover);
+            return this;
+        }
+
+        // fields without constraints match every value, an empty list of values matches none
+        public ConnectivityMatcher build() {
+            return new Compiled((constrained & STATE) != 0 ? states : ALL_STATES,
+                    (constrained & DETAILED_STATE) != 0 ? detailedStates : ALL_STATES,
+                    (constrained & TYPE) != 0 ? types : ALL_TYPES,
+                    (constrained & SUB_TYPE) != 0 ? subTypes : ALL_TYPES,
+                    roaming != 0 ? roaming : ALL_STATES, failover != 0 ? failover : ALL_STATES);
+        }
+
+        private static int checkedTypeIndex(final int type, final String name) {
+            final int index = typeIndex(type);
+            Preconditions.checkArgument(index != OTHER_TYPE_INDEX,
+                    name + " is out of the supported range");
+            return index;
+        }
+    }
+}
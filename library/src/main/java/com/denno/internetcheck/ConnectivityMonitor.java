@@ -0,0 +1,188 @@
+package com.denno.internetcheck;
+
+import android.Manifest;
+import android.annotation.SuppressLint;
+import android.annotation.TargetApi;
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkInfo;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresPermission;
+import com.denno.internetcheck.observing.InternetProbeEngine;
+import com.denno.internetcheck.observing.dns.ResolverCache;
+import com.denno.internetcheck.observing.portal.CaptivePortalCache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.reactivex.Observable;
+import io.reactivex.ObservableSource;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.functions.Action;
+import io.reactivex.functions.Consumer;
+
+// Process-wide network connectivity observation. The system callback is registered once for all
+// subscribers and unregistered together with the last one. Late subscribers get the latest
+// connectivity replayed from memory instead of asking the system again. The process-wide
+// resolver, probe and captive portal caches are invalidated here, once per network change,
+// however many subscribers there are. Stabilized streams are shared per stabilizer as well;
+// while any is observed, the caches follow its settled changes instead of the raw ones.
+public final class ConnectivityMonitor {
+    private static volatile ConnectivityMonitor instance;
+
+    private final Context context;
+    private final Observable<Connectivity> connectivity;
+    private final ConcurrentMap<ConnectivityStabilizer, Observable<Connectivity>> stabilized =
+            new ConcurrentHashMap<>();
+    private final AtomicInteger stabilizedStreams = new AtomicInteger();
+    private volatile Connectivity latest;
+    // the connectivity the caches were last invalidated for, guarded by this
+    private Connectivity invalidatedFor;
+
+    private ConnectivityMonitor(final Context context) {
+        this(context, Observable.defer(new Callable<ObservableSource<Connectivity>>() {
+            @Override
+            public ObservableSource<Connectivity> call() {
+                // strategies keep per-registration state, each registration gets a fresh one
+                return ConnectivityCheck.defaultNetworkObservingStrategy()
+                        .observeNetworkConnectivity(context);
+            }
+        }));
+    }
+
+    // source is subscribed once per registration
+    ConnectivityMonitor(final Context context, final Observable<Connectivity> source) {
+        this.context = context;
+        this.connectivity = source.doOnNext(new Consumer<Connectivity>() {
+            @Override
+            public void accept(Connectivity connectivity) {
+                latest = connectivity;
+                if (stabilizedStreams.get() == 0) {
+                    invalidateCachesOnChange(connectivity);
+                }
+            }
+        }).doFinally(new Action() {
+            @Override
+            public void run() {
+                latest = null;
+                forgetInvalidation();
+            }
+        }).replay(1).refCount();
+    }
+
+    public static ConnectivityMonitor getInstance(final Context context) {
+        Preconditions.checkNotNull(context, "context == null");
+        ConnectivityMonitor monitor = instance;
+        if (monitor == null) {
+            synchronized (ConnectivityMonitor.class) {
+                monitor = instance;
+                if (monitor == null) {
+                    monitor = new ConnectivityMonitor(context.getApplicationContext());
+                    instance = monitor;
+                }
+            }
+        }
+        return monitor;
+    }
+
+    @RequiresPermission(Manifest.permission.ACCESS_NETWORK_STATE)
+    public Observable<Connectivity> observe() {
+        return connectivity;
+    }
+
+    // the stabilizer settles the shared stream before the caches see it, so flapping
+    // connectivity does not wipe them on every raw transition
+    @RequiresPermission(Manifest.permission.ACCESS_NETWORK_STATE)
+    public Observable<Connectivity> observe(final ConnectivityStabilizer stabilizer) {
+        Preconditions.checkNotNull(stabilizer, "stabilizer == null");
+        final Observable<Connectivity> existing = stabilized.get(stabilizer);
+        if (existing != null) {
+            return existing;
+        }
+
+        final Observable<Connectivity> created = stabilize(stabilizer);
+        final Observable<Connectivity> raced = stabilized.putIfAbsent(stabilizer, created);
+        return raced != null ? raced : created;
+    }
+
+    private Observable<Connectivity> stabilize(final ConnectivityStabilizer stabilizer) {
+        final AtomicReference<Observable<Connectivity>> self = new AtomicReference<>();
+        final Observable<Connectivity> settled = connectivity.compose(stabilizer);
+        final Observable<Connectivity> shared = settled.doOnSubscribe(new Consumer<Disposable>() {
+            @Override
+            public void accept(Disposable disposable) {
+                stabilizedStreams.incrementAndGet();
+            }
+        }).doOnNext(new Consumer<Connectivity>() {
+            @Override
+            public void accept(Connectivity connectivity) {
+                invalidateCachesOnChange(connectivity);
+            }
+        }).doFinally(new Action() {
+            @Override
+            public void run() {
+                stabilizedStreams.decrementAndGet();
+                stabilized.remove(stabilizer, self.get());
+            }
+        }).replay(1).refCount();
+        self.set(shared);
+        return shared;
+    }
+
+    // the network may change unobserved until the next registration, whose first connectivity
+    // invalidates the caches again
+    private synchronized void forgetInvalidation() {
+        invalidatedFor = null;
+    }
+
+    private synchronized void invalidateCachesOnChange(final Connectivity connectivity) {
+        if (invalidatedFor != null
+                && ConnectivityChangeDetector.getInstance().test(invalidatedFor, connectivity)) {
+            return;
+        }
+        invalidatedFor = connectivity;
+        // host names may resolve differently and cached checks are outdated on the new network
+        ResolverCache.getDefault().invalidate();
+        InternetProbeEngine.getInstance().invalidate();
+        CaptivePortalCache.getDefault().networkChanged(networkIdentity(connectivity));
+    }
+
+    // null while no network is known, which leaves captive portal verdicts uncached. On
+    // Marshmallow and later the extra info is empty, the netId of the default network is used
+    // instead, so verdicts last as long as the device stays connected to that network. Before,
+    // the extra info is the SSID of a Wi-Fi network or the APN of a mobile one.
+    private String networkIdentity(final Connectivity connectivity) {
+        if (connectivity.state() != NetworkInfo.State.CONNECTED) {
+            return null;
+        }
+        if (AndroidPreconditions.isAtLeastAndroidMarshmallow()) {
+            return activeNetworkIdentity();
+        }
+        final String extraInfo = connectivity.extraInfo();
+        if (extraInfo == null || extraInfo.isEmpty()) {
+            return null;
+        }
+        return connectivity.type() + "/" + extraInfo;
+    }
+
+    // only called for connectivity observed with ACCESS_NETWORK_STATE granted
+    @TargetApi(23)
+    @SuppressLint("MissingPermission")
+    private String activeNetworkIdentity() {
+        final ConnectivityManager manager =
+                (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        final Network network = manager != null ? manager.getActiveNetwork() : null;
+        return network != null ? "network/" + network : null;
+    }
+
+    // the latest connectivity while anyone observes it, null otherwise
+    @Nullable
+    public Connectivity latest() {
+        return latest;
+    }
+}
@@ -0,0 +1,23 @@
+package com.denno.internetcheck;
+
+import android.net.NetworkInfo;
+
+import io.reactivex.functions.Predicate;
+
+public final class ConnectivityPredicate {
+
+    private ConnectivityPredicate() {
+    }
+
+    public static ConnectivityMatcher.Builder builder() {
+        return ConnectivityMatcher.builder();
+    }
+
+    public static Predicate<Connectivity> hasState(final NetworkInfo.State... states) {
+        return builder().state(states).build();
+    }
+
+    public static Predicate<Connectivity> hasType(final int... types) {
+        return builder().type(types).type(Connectivity.UNKNOWN_TYPE).build();
+    }
+}
@@ -0,0 +1,75 @@
+package com.denno.internetcheck;
+
+import android.net.NetworkInfo;
+
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Observable;
+import io.reactivex.ObservableSource;
+import io.reactivex.ObservableTransformer;
+import io.reactivex.Scheduler;
+import io.reactivex.annotations.NonNull;
+import io.reactivex.functions.Function;
+import io.reactivex.schedulers.Schedulers;
+
+// Settles flapping connectivity: the first state passes immediately, every later state is
+// emitted only when no other state follows within the settle window. Disconnected states have
+// to stay for at least disconnectedStableFor, so a short drop during a handover is swallowed.
+// States equal to the last emitted one are not repeated.
+public final class ConnectivityStabilizer
+        implements ObservableTransformer<Connectivity, Connectivity> {
+    private final int settleWindowInMs;
+    private final int disconnectedStableForInMs;
+    private final Scheduler scheduler;
+
+    public ConnectivityStabilizer(final int settleWindowInMs,
+                                  final int disconnectedStableForInMs) {
+        this(settleWindowInMs, disconnectedStableForInMs, Schedulers.computation());
+    }
+
+    public ConnectivityStabilizer(final int settleWindowInMs, final int disconnectedStableForInMs,
+                                  final Scheduler scheduler) {
+        Preconditions.checkGreaterOrEqualToZero(settleWindowInMs,
+                "settleWindowInMs is not a positive number");
+        Preconditions.checkGreaterOrEqualToZero(disconnectedStableForInMs,
+                "disconnectedStableForInMs is not a positive number");
+        Preconditions.checkNotNull(scheduler, "scheduler == null");
+        this.settleWindowInMs = settleWindowInMs;
+        this.disconnectedStableForInMs = disconnectedStableForInMs;
+        this.scheduler = scheduler;
+    }
+
+    public int settleWindowInMs() {
+        return settleWindowInMs;
+    }
+
+    public int disconnectedStableForInMs() {
+        return disconnectedStableForInMs;
+    }
+
+    @Override
+    public ObservableSource<Connectivity> apply(@NonNull Observable<Connectivity> upstream) {
+        return upstream.publish(new Function<Observable<Connectivity>,
+                ObservableSource<Connectivity>>() {
+            @Override
+            public ObservableSource<Connectivity> apply(@NonNull Observable<Connectivity> shared) {
+                return Observable.merge(shared.take(1), shared.skip(1).debounce(
+                        new Function<Connectivity, ObservableSource<Long>>() {
+                            @Override
+                            public ObservableSource<Long> apply(
+                                    @NonNull Connectivity connectivity) {
+                                return Observable.timer(settleTimeInMs(connectivity),
+                                        TimeUnit.MILLISECONDS, scheduler);
+                            }
+                        }));
+            }
+        }).distinctUntilChanged(ConnectivityChangeDetector.getInstance());
+    }
+
+    private long settleTimeInMs(final Connectivity connectivity) {
+        if (connectivity.state() == NetworkInfo.State.CONNECTED) {
+            return settleWindowInMs;
+        }
+        return Math.max(settleWindowInMs, disconnectedStableForInMs);
+    }
+}
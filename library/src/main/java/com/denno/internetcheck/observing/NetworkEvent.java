@@ -0,0 +1,9 @@
+package com.denno.internetcheck.observing;
+
+public enum NetworkEvent {
+    AVAILABLE,
+    LOST,
+    CAPABILITIES_CHANGED,
+    LINK_PROPERTIES_CHANGED,
+    CONNECTIVITY_CHANGED
+}
@@ -0,0 +1,156 @@
+package com.denno.internetcheck.observing;
+
+import android.Manifest;
+import android.annotation.TargetApi;
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.LinkProperties;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.net.NetworkRequest;
+
+import androidx.annotation.RequiresPermission;
+import com.denno.internetcheck.Connectivity;
+import com.denno.internetcheck.ConnectivityCheck;
+import com.denno.internetcheck.AndroidPreconditions;
+import com.denno.internetcheck.Preconditions;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.reactivex.Observable;
+import io.reactivex.ObservableEmitter;
+import io.reactivex.ObservableOnSubscribe;
+import io.reactivex.annotations.NonNull;
+import io.reactivex.functions.Cancellable;
+import io.reactivex.functions.Function;
+
+// Network callback events, without collapsing them into Connectivity snapshots, so that
+// capability and link changes of an already connected network are visible as well. Only changes
+// which can affect reachability are reported: validation, internet and captive portal
+// capabilities, transports, addresses and DNS servers. Signal strength and bandwidth updates,
+// and the repeated callbacks following onAvailable, are dropped.
+public final class NetworkEvents {
+    // cellular, Wi-Fi, Bluetooth, ethernet and VPN
+    private static final int TRANSPORTS = 5;
+    private static final int INTERNET_BIT = 32;
+    private static final int VALIDATED_BIT = 33;
+    private static final int CAPTIVE_PORTAL_BIT = 34;
+
+    private NetworkEvents() {
+    }
+
+    @RequiresPermission(Manifest.permission.ACCESS_NETWORK_STATE)
+    public static Observable<NetworkEvent> observe(final Context context) {
+        Preconditions.checkNotNull(context, "context == null");
+
+        if (AndroidPreconditions.isAtLeastAndroidLollipop()) {
+            return observeNetworkCallback(context);
+        }
+
+        return ConnectivityCheck.observeNetworkConnectivity(context)
+                .map(new Function<Connectivity, NetworkEvent>() {
+                    @Override
+                    public NetworkEvent apply(@NonNull Connectivity connectivity) {
+                        return NetworkEvent.CONNECTIVITY_CHANGED;
+                    }
+                });
+    }
+
+    @TargetApi(21)
+    private static Observable<NetworkEvent> observeNetworkCallback(final Context context) {
+        final String service = Context.CONNECTIVITY_SERVICE;
+        final ConnectivityManager manager = (ConnectivityManager) context.getSystemService(service);
+
+        return Observable.create(new ObservableOnSubscribe<NetworkEvent>() {
+            @Override
+            public void subscribe(@NonNull final ObservableEmitter<NetworkEvent> emitter) {
+                final ConnectivityManager.NetworkCallback callback = createNetworkCallback(emitter);
+                final NetworkRequest request = new NetworkRequest.Builder()
+                        .addCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET)
+                        .build();
+
+                manager.registerNetworkCallback(request, callback);
+
+                emitter.setCancellable(new Cancellable() {
+                    @Override
+                    public void cancel() {
+                        manager.unregisterNetworkCallback(callback);
+                    }
+                });
+            }
+        });
+    }
+
+    // callbacks of one registration arrive on a single thread, the maps need no locking
+    @TargetApi(21)
+    private static ConnectivityManager.NetworkCallback createNetworkCallback(
+            final ObservableEmitter<NetworkEvent> emitter) {
+        return new ConnectivityManager.NetworkCallback() {
+            private final Map<Network, Long> capabilities = new HashMap<>();
+            private final Map<Network, List<Object>> linkProperties = new HashMap<>();
+
+            @Override
+            public void onAvailable(Network network) {
+                emitter.onNext(NetworkEvent.AVAILABLE);
+            }
+
+            @Override
+            public void onLost(Network network) {
+                capabilities.remove(network);
+                linkProperties.remove(network);
+                emitter.onNext(NetworkEvent.LOST);
+            }
+
+            @Override
+            public void onCapabilitiesChanged(Network network,
+                                              NetworkCapabilities networkCapabilities) {
+                final Long relevant = relevantCapabilities(networkCapabilities);
+                final Long previous = capabilities.put(network, relevant);
+                if (previous != null && !previous.equals(relevant)) {
+                    emitter.onNext(NetworkEvent.CAPABILITIES_CHANGED);
+                }
+            }
+
+            @Override
+            public void onLinkPropertiesChanged(Network network, LinkProperties properties) {
+                final List<Object> relevant = relevantLinkProperties(properties);
+                final List<Object> previous = linkProperties.put(network, relevant);
+                if (previous != null && !previous.equals(relevant)) {
+                    emitter.onNext(NetworkEvent.LINK_PROPERTIES_CHANGED);
+                }
+            }
+        };
+    }
+
+    // the first capabilities of a network follow onAvailable, which has been reported already
+    @TargetApi(21)
+    private static long relevantCapabilities(final NetworkCapabilities capabilities) {
+        long relevant = 0;
+        for (int transport = 0; transport < TRANSPORTS; transport++) {
+            if (capabilities.hasTransport(transport)) {
+                relevant |= 1L << transport;
+            }
+        }
+        if (capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET)) {
+            relevant |= 1L << INTERNET_BIT;
+        }
+        if (AndroidPreconditions.isAtLeastAndroidMarshmallow()) {
+            if (capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_VALIDATED)) {
+                relevant |= 1L << VALIDATED_BIT;
+            }
+            if (capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_CAPTIVE_PORTAL)) {
+                relevant |= 1L << CAPTIVE_PORTAL_BIT;
+            }
+        }
+        return relevant;
+    }
+
+    @TargetApi(21)
+    private static List<Object> relevantLinkProperties(final LinkProperties properties) {
+        return Arrays.<Object>asList(properties.getInterfaceName(), properties.getLinkAddresses(),
+                properties.getDnsServers());
+    }
+}
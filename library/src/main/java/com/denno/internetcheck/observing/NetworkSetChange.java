@@ -0,0 +1,51 @@
+package com.denno.internetcheck.observing;
+
+import java.util.Collections;
+import java.util.Set;
+
+// All networks known after a callback, together with what the callback changed. A network whose
+// capabilities or link properties changed is reported as updated, not as removed and added.
+public final class NetworkSetChange {
+    private final Set<NetworkSnapshot> networks;
+    private final Set<NetworkSnapshot> added;
+    private final Set<NetworkSnapshot> updated;
+    private final Set<NetworkSnapshot> removed;
+
+    NetworkSetChange(final Set<NetworkSnapshot> networks, final Set<NetworkSnapshot> added,
+                     final Set<NetworkSnapshot> updated, final Set<NetworkSnapshot> removed) {
+        this.networks = Collections.unmodifiableSet(networks);
+        this.added = Collections.unmodifiableSet(added);
+        this.updated = Collections.unmodifiableSet(updated);
+        this.removed = Collections.unmodifiableSet(removed);
+    }
+
+    public Set<NetworkSnapshot> networks() {
+        return networks;
+    }
+
+    public Set<NetworkSnapshot> added() {
+        return added;
+    }
+
+    public Set<NetworkSnapshot> updated() {
+        return updated;
+    }
+
+    public Set<NetworkSnapshot> removed() {
+        return removed;
+    }
+
+    @Override
+    public String toString() {
+        return "NetworkSetChange{"
+                + "networks="
+                + networks
+                + ", added="
+                + added
+                + ", updated="
+                + updated
+                + ", removed="
+                + removed
+                + '}';
+    }
+}
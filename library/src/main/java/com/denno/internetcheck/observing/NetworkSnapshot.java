@@ -0,0 +1,111 @@
+package com.denno.internetcheck.observing;
+
+import android.annotation.TargetApi;
+import android.net.LinkProperties;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+
+import androidx.annotation.Nullable;
+
+// One network reported by the system callbacks together with its latest capabilities and,
+// once known, its link properties. Snapshots are equal when the transports and the metering
+// tested here are, signal strength and bandwidth are not compared.
+@TargetApi(21)
+public final class NetworkSnapshot {
+    // TRANSPORT_CELLULAR up to TRANSPORT_VPN
+    private static final int TRANSPORTS = 5;
+
+    private final Network network;
+    private final NetworkCapabilities capabilities;
+    private final LinkProperties linkProperties;
+    private final int transports;
+    private final boolean unmetered;
+
+    NetworkSnapshot(final Network network, final NetworkCapabilities capabilities,
+                    @Nullable final LinkProperties linkProperties) {
+        this.network = network;
+        this.capabilities = capabilities;
+        this.linkProperties = linkProperties;
+        this.transports = transports(capabilities);
+        this.unmetered =
+                capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_NOT_METERED);
+    }
+
+    public Network network() {
+        return network;
+    }
+
+    public NetworkCapabilities capabilities() {
+        return capabilities;
+    }
+
+    @Nullable
+    public LinkProperties linkProperties() {
+        return linkProperties;
+    }
+
+    public boolean hasTransport(final int transport) {
+        return capabilities.hasTransport(transport);
+    }
+
+    public boolean isUnmetered() {
+        return unmetered;
+    }
+
+    NetworkSnapshot withCapabilities(final NetworkCapabilities capabilities) {
+        return new NetworkSnapshot(network, capabilities, linkProperties);
+    }
+
+    NetworkSnapshot withLinkProperties(final LinkProperties linkProperties) {
+        return new NetworkSnapshot(network, capabilities, linkProperties);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        NetworkSnapshot that = (NetworkSnapshot) o;
+
+        return network.equals(that.network)
+                && transports == that.transports
+                && unmetered == that.unmetered
+                && (linkProperties != null ? linkProperties.equals(that.linkProperties)
+                : that.linkProperties == null);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = network.hashCode();
+        result = 31 * result + transports;
+        result = 31 * result + (unmetered ? 1 : 0);
+        result = 31 * result + (linkProperties != null ? linkProperties.hashCode() : 0);
+        return result;
+    }
+
+    private static int transports(final NetworkCapabilities capabilities) {
+        int transports = 0;
+        for (int transport = 0; transport < TRANSPORTS; transport++) {
+            if (capabilities.hasTransport(transport)) {
+                transports |= 1 << transport;
+            }
+        }
+        return transports;
+    }
+
+    @Override
+    public String toString() {
+        return "NetworkSnapshot{"
+                + "network="
+                + network
+                + ", capabilities="
+                + capabilities
+                + ", linkProperties="
+                + linkProperties
+                + '}';
+    }
+}
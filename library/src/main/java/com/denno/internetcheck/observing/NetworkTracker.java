@@ -0,0 +1,182 @@
+package com.denno.internetcheck.observing;
+
+import android.Manifest;
+import android.annotation.TargetApi;
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.LinkProperties;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.net.NetworkRequest;
+import android.os.Build;
+
+import androidx.annotation.RequiresPermission;
+import com.denno.internetcheck.AndroidPreconditions;
+import com.denno.internetcheck.Preconditions;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import io.reactivex.Observable;
+import io.reactivex.ObservableEmitter;
+import io.reactivex.ObservableOnSubscribe;
+import io.reactivex.ObservableSource;
+import io.reactivex.annotations.NonNull;
+import io.reactivex.functions.Cancellable;
+import io.reactivex.functions.Function;
+
+// Tracks every network with internet capability, not only the default one, so e.g. uploads can
+// be pinned to an unmetered network while Wi-Fi and cellular are both up. A network is reported
+// once its capabilities are known. Before Lollipop there are no per-network callbacks and the
+// observable completes without emitting. Like ConnectivityMonitor, all subscribers share one
+// callback registration, the system caps how many an app may have.
+public final class NetworkTracker {
+    private static final Set<NetworkSnapshot> NONE = Collections.emptySet();
+    private static volatile Observable<NetworkSetChange> shared;
+
+    private final ConcurrentMap<Network, NetworkSnapshot> networks = new ConcurrentHashMap<>();
+    private final ObservableEmitter<NetworkSetChange> emitter;
+
+    private NetworkTracker(final ObservableEmitter<NetworkSetChange> emitter) {
+        this.emitter = emitter;
+    }
+
+    @RequiresPermission(Manifest.permission.ACCESS_NETWORK_STATE)
+    public static Observable<NetworkSetChange> observe(final Context context) {
+        Preconditions.checkNotNull(context, "context == null");
+
+        if (!AndroidPreconditions.isAtLeastAndroidLollipop()) {
+            return Observable.empty();
+        }
+
+        Observable<NetworkSetChange> changes = shared;
+        if (changes == null) {
+            synchronized (NetworkTracker.class) {
+                changes = shared;
+                if (changes == null) {
+                    changes = observeNetworkCallback(context.getApplicationContext())
+                            .replay(1)
+                            .refCount();
+                    shared = changes;
+                }
+            }
+        }
+        return startFromCurrent(changes);
+    }
+
+    // a late subscriber gets the latest change replayed, as if all current networks were added
+    private static Observable<NetworkSetChange> startFromCurrent(
+            final Observable<NetworkSetChange> changes) {
+        return Observable.defer(new Callable<ObservableSource<NetworkSetChange>>() {
+            @Override
+            public ObservableSource<NetworkSetChange> call() {
+                final AtomicBoolean first = new AtomicBoolean(true);
+                return changes.map(new Function<NetworkSetChange, NetworkSetChange>() {
+                    @Override
+                    public NetworkSetChange apply(NetworkSetChange change) {
+                        if (!first.compareAndSet(true, false)) {
+                            return change;
+                        }
+                        return new NetworkSetChange(change.networks(), change.networks(), NONE,
+                                NONE);
+                    }
+                });
+            }
+        });
+    }
+
+    @TargetApi(21)
+    private static Observable<NetworkSetChange> observeNetworkCallback(final Context context) {
+        final String service = Context.CONNECTIVITY_SERVICE;
+        final ConnectivityManager manager = (ConnectivityManager) context.getSystemService(service);
+
+        return Observable.create(new ObservableOnSubscribe<NetworkSetChange>() {
+            @Override
+            public void subscribe(@NonNull final ObservableEmitter<NetworkSetChange> emitter) {
+                final NetworkTracker tracker = new NetworkTracker(emitter.serialize());
+                final ConnectivityManager.NetworkCallback callback =
+                        tracker.createNetworkCallback(manager);
+                final NetworkRequest request = new NetworkRequest.Builder()
+                        .addCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET)
+                        .build();
+
+                manager.registerNetworkCallback(request, callback);
+
+                emitter.setCancellable(new Cancellable() {
+                    @Override
+                    public void cancel() {
+                        manager.unregisterNetworkCallback(callback);
+                    }
+                });
+            }
+        });
+    }
+
+    @TargetApi(21)
+    private ConnectivityManager.NetworkCallback createNetworkCallback(
+            final ConnectivityManager manager) {
+        return new ConnectivityManager.NetworkCallback() {
+            @Override
+            public void onAvailable(Network network) {
+                // before Oreo onCapabilitiesChanged() is not guaranteed to follow
+                if (Build.VERSION.SDK_INT < Build.VERSION_CODES.O) {
+                    final NetworkCapabilities capabilities =
+                            manager.getNetworkCapabilities(network);
+                    if (capabilities != null) {
+                        onCapabilitiesChanged(network, capabilities);
+                    }
+                }
+            }
+
+            @Override
+            public void onCapabilitiesChanged(Network network, NetworkCapabilities capabilities) {
+                final NetworkSnapshot previous = networks.get(network);
+                if (previous == null) {
+                    add(new NetworkSnapshot(network, capabilities, null));
+                } else {
+                    update(previous, previous.withCapabilities(capabilities));
+                }
+            }
+
+            @Override
+            public void onLinkPropertiesChanged(Network network, LinkProperties linkProperties) {
+                final NetworkSnapshot previous = networks.get(network);
+                if (previous != null) {
+                    update(previous, previous.withLinkProperties(linkProperties));
+                }
+            }
+
+            @Override
+            public void onLost(Network network) {
+                final NetworkSnapshot removed = networks.remove(network);
+                if (removed != null) {
+                    emit(NONE, NONE, Collections.singleton(removed));
+                }
+            }
+        };
+    }
+
+    private void add(final NetworkSnapshot snapshot) {
+        networks.put(snapshot.network(), snapshot);
+        emit(Collections.singleton(snapshot), NONE, NONE);
+    }
+
+    // signal strength or bandwidth updates only refresh the stored capabilities
+    private void update(final NetworkSnapshot previous, final NetworkSnapshot snapshot) {
+        networks.put(snapshot.network(), snapshot);
+        if (!previous.equals(snapshot)) {
+            emit(NONE, Collections.singleton(snapshot), NONE);
+        }
+    }
+
+    private void emit(final Set<NetworkSnapshot> added, final Set<NetworkSnapshot> updated,
+                      final Set<NetworkSnapshot> removed) {
+        final Set<NetworkSnapshot> current = new LinkedHashSet<>(networks.values());
+        emitter.onNext(new NetworkSetChange(current, added, updated, removed));
+    }
+}
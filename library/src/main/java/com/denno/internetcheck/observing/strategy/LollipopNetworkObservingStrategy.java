@@ -9,6 +9,7 @@ import android.net.NetworkRequest;
 import android.util.Log;
 import com.jakewharton.nopen.annotation.Open;
 import com.denno.internetcheck.Connectivity;
+import com.denno.internetcheck.ConnectivityChangeDetector;
 import com.denno.internetcheck.observing.NetworkObservingStrategy;
 
 import io.reactivex.Observable;
@@ -42,7 +43,8 @@ public class LollipopNetworkObservingStrategy
             public void run() {
                 tryToUnregisterCallback(manager);
             }
-        }).startWith(Connectivity.create(context)).distinctUntilChanged();
+        }).startWith(Connectivity.create(context))
+                .distinctUntilChanged(ConnectivityChangeDetector.getInstance());
     }
 
     private void tryToUnregisterCallback(final ConnectivityManager manager) {
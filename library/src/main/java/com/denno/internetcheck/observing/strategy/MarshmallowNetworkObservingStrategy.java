@@ -6,17 +6,26 @@ import android.content.Context;
 import android.content.Intent;
 import android.content.IntentFilter;
 import android.net.ConnectivityManager;
+import android.net.LinkProperties;
 import android.net.Network;
 import android.net.NetworkCapabilities;
 import android.net.NetworkInfo;
 import android.net.NetworkRequest;
+import android.os.Build;
 import android.os.PowerManager;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
 import com.jakewharton.nopen.annotation.Open;
 import com.denno.internetcheck.Connectivity;
+import com.denno.internetcheck.ConnectivityChangeDetector;
 import com.denno.internetcheck.observing.NetworkObservingStrategy;
+import com.denno.internetcheck.observing.dns.ResolverCache;
+
+import java.net.InetAddress;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.reactivestreams.Publisher;
 import io.reactivex.BackpressureStrategy;
@@ -42,6 +51,8 @@ import static com.denno.internetcheck.ConnectivityCheck.LOG_TAG;
   private final Subject<Connectivity> connectivitySubject;
   private final BroadcastReceiver idleReceiver;
   private Connectivity lastConnectivity = Connectivity.create();
+  private final Map<Network, List<InetAddress>> dnsServers = new ConcurrentHashMap<>();
+  private final Map<Network, NetworkCapabilities> networks = new ConcurrentHashMap<>();
 
   @SuppressWarnings("NullAway") // networkCallback cannot be initialized here
   public MarshmallowNetworkObservingStrategy() {
@@ -69,6 +80,7 @@ import static com.denno.internetcheck.ConnectivityCheck.LOG_TAG;
       public void run() {
         tryToUnregisterCallback(manager);
         tryToUnregisterReceiver(context);
+        networks.clear();
       }
     }).doAfterNext(new Consumer<Connectivity>() {
       @Override
@@ -80,7 +92,9 @@ import static com.denno.internetcheck.ConnectivityCheck.LOG_TAG;
       public Publisher<Connectivity> apply(final Connectivity connectivity) {
         return propagateAnyConnectedState(lastConnectivity, connectivity);
       }
-    }).startWith(Connectivity.create(context)).distinctUntilChanged().toObservable();
+    }).startWith(initialConnectivity(manager))
+        .distinctUntilChanged(ConnectivityChangeDetector.getInstance())
+        .toObservable();
   }
 
   protected Publisher<Connectivity> propagateAnyConnectedState(final Connectivity last,
@@ -109,7 +123,7 @@ import static com.denno.internetcheck.ConnectivityCheck.LOG_TAG;
         if (isIdleMode(context)) {
           onNext(Connectivity.create());
         } else {
-          onNext(Connectivity.create(context));
+          onNext(currentConnectivity());
         }
       }
     };
@@ -143,20 +157,84 @@ import static com.denno.internetcheck.ConnectivityCheck.LOG_TAG;
     Log.e(LOG_TAG, message, exception);
   }
 
+  // snapshots are derived from the callback payloads, the only call into the system is
+  // the capabilities lookup before Oreo, where onCapabilitiesChanged() may not follow
+  // onAvailable()
   protected ConnectivityManager.NetworkCallback createNetworkCallback(final Context context) {
+    final String service = Context.CONNECTIVITY_SERVICE;
+    final ConnectivityManager manager = (ConnectivityManager) context.getSystemService(service);
+
     return new ConnectivityManager.NetworkCallback() {
       @Override
       public void onAvailable(Network network) {
-        onNext(Connectivity.create(context));
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.O) {
+          final NetworkCapabilities capabilities = manager.getNetworkCapabilities(network);
+          if (capabilities != null) {
+            onNetworkChanged(network, capabilities);
+          }
+        }
+      }
+
+      @Override
+      public void onCapabilitiesChanged(Network network, NetworkCapabilities capabilities) {
+        onNetworkChanged(network, capabilities);
       }
 
       @Override
       public void onLost(Network network) {
-        onNext(Connectivity.create(context));
+        dnsServers.remove(network);
+        onNetworkLost(network);
+      }
+
+      @Override
+      public void onLinkPropertiesChanged(Network network, LinkProperties linkProperties) {
+        onDnsServersChanged(network, linkProperties.getDnsServers());
       }
     };
   }
 
+  protected void onNetworkChanged(final Network network, final NetworkCapabilities capabilities) {
+    networks.put(network, capabilities);
+    onNext(currentConnectivity());
+  }
+
+  // losing the last network reports its type as disconnected, which is what
+  // propagateAnyConnectedState() expects during a handover
+  protected void onNetworkLost(final Network network) {
+    final NetworkCapabilities lost = networks.remove(network);
+    if (!networks.isEmpty()) {
+      onNext(currentConnectivity());
+    } else if (lost != null) {
+      onNext(NetworkCapabilitiesConnectivity.disconnected(lost));
+    } else {
+      onNext(Connectivity.create());
+    }
+  }
+
+  // built from capabilities like the callback snapshots, so the first callback about the same
+  // network is not taken for a change
+  private Connectivity initialConnectivity(final ConnectivityManager manager) {
+    final Network network = manager.getActiveNetwork();
+    final NetworkCapabilities capabilities =
+        network != null ? manager.getNetworkCapabilities(network) : null;
+    return capabilities != null ? NetworkCapabilitiesConnectivity.connected(capabilities)
+        : Connectivity.create();
+  }
+
+  private Connectivity currentConnectivity() {
+    final Network network = NetworkCapabilitiesConnectivity.selectDefault(networks);
+    final NetworkCapabilities capabilities = network != null ? networks.get(network) : null;
+    return capabilities != null ? NetworkCapabilitiesConnectivity.connected(capabilities)
+        : Connectivity.create();
+  }
+
+  protected void onDnsServersChanged(final Network network, final List<InetAddress> servers) {
+    final List<InetAddress> previous = dnsServers.put(network, servers);
+    if (previous != null && !previous.equals(servers)) {
+      ResolverCache.getDefault().invalidate();
+    }
+  }
+
   protected void onNext(Connectivity connectivity) {
     connectivitySubject.onNext(connectivity);
   }
@@ -0,0 +1,122 @@
+package com.denno.internetcheck.observing.strategy;
+
+import android.annotation.TargetApi;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.net.NetworkInfo;
+import android.os.Build;
+
+import com.denno.internetcheck.Connectivity;
+
+import java.util.Map;
+
+// Derives Connectivity snapshots from NetworkCallback payloads, so the event path does not need
+// a getActiveNetworkInfo() call into the system. Capabilities do not carry the mobile subtype,
+// the reason or the extra info, those are reported as for a network without them.
+@TargetApi(23)
+final class NetworkCapabilitiesConnectivity {
+    private static final int SUB_TYPE_NONE = 0;
+    private static final String NO_NAME = "";
+
+    private NetworkCapabilitiesConnectivity() {
+    }
+
+    static Connectivity connected(final NetworkCapabilities capabilities) {
+        return create(NetworkInfo.State.CONNECTED, NetworkInfo.DetailedState.CONNECTED,
+                capabilities);
+    }
+
+    static Connectivity disconnected(final NetworkCapabilities capabilities) {
+        return create(NetworkInfo.State.DISCONNECTED, NetworkInfo.DetailedState.DISCONNECTED,
+                capabilities);
+    }
+
+    // the network the system most likely uses as default: validated networks first, then
+    // VPN, ethernet, Wi-Fi and cellular in the order the system prefers them
+    static Network selectDefault(final Map<Network, NetworkCapabilities> networks) {
+        Network selected = null;
+        int selectedScore = -1;
+        for (Map.Entry<Network, NetworkCapabilities> entry : networks.entrySet()) {
+            final int score = score(entry.getValue());
+            if (score > selectedScore) {
+                selected = entry.getKey();
+                selectedScore = score;
+            }
+        }
+        return selected;
+    }
+
+    private static int score(final NetworkCapabilities capabilities) {
+        final boolean validated =
+                capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_VALIDATED);
+        final int transport;
+        if (capabilities.hasTransport(NetworkCapabilities.TRANSPORT_VPN)) {
+            transport = 4;
+        } else if (capabilities.hasTransport(NetworkCapabilities.TRANSPORT_ETHERNET)) {
+            transport = 3;
+        } else if (capabilities.hasTransport(NetworkCapabilities.TRANSPORT_WIFI)) {
+            transport = 2;
+        } else if (capabilities.hasTransport(NetworkCapabilities.TRANSPORT_CELLULAR)) {
+            transport = 1;
+        } else {
+            transport = 0;
+        }
+        return (validated ? 8 : 0) + transport;
+    }
+
+    private static Connectivity create(final NetworkInfo.State state,
+                                       final NetworkInfo.DetailedState detailedState,
+                                       final NetworkCapabilities capabilities) {
+        final int type = type(capabilities);
+        return Connectivity.state(state)
+                .detailedState(detailedState)
+                .type(type)
+                .subType(SUB_TYPE_NONE)
+                .available(state == NetworkInfo.State.CONNECTED)
+                .roaming(isRoaming(capabilities))
+                .typeName(typeName(type))
+                .subTypeName(NO_NAME)
+                .reason(NO_NAME)
+                .extraInfo(NO_NAME)
+                .build();
+    }
+
+    private static int type(final NetworkCapabilities capabilities) {
+        if (capabilities.hasTransport(NetworkCapabilities.TRANSPORT_VPN)) {
+            return ConnectivityManager.TYPE_VPN;
+        } else if (capabilities.hasTransport(NetworkCapabilities.TRANSPORT_WIFI)) {
+            return ConnectivityManager.TYPE_WIFI;
+        } else if (capabilities.hasTransport(NetworkCapabilities.TRANSPORT_CELLULAR)) {
+            return ConnectivityManager.TYPE_MOBILE;
+        } else if (capabilities.hasTransport(NetworkCapabilities.TRANSPORT_ETHERNET)) {
+            return ConnectivityManager.TYPE_ETHERNET;
+        } else if (capabilities.hasTransport(NetworkCapabilities.TRANSPORT_BLUETOOTH)) {
+            return ConnectivityManager.TYPE_BLUETOOTH;
+        }
+        return ConnectivityManager.TYPE_DUMMY;
+    }
+
+    // the same names NetworkInfo.getTypeName() reports
+    private static String typeName(final int type) {
+        switch (type) {
+            case ConnectivityManager.TYPE_VPN:
+                return "VPN";
+            case ConnectivityManager.TYPE_WIFI:
+                return "WIFI";
+            case ConnectivityManager.TYPE_MOBILE:
+                return "MOBILE";
+            case ConnectivityManager.TYPE_ETHERNET:
+                return "ETHERNET";
+            case ConnectivityManager.TYPE_BLUETOOTH:
+                return "BLUETOOTH";
+            default:
+                return "DUMMY";
+        }
+    }
+
+    private static boolean isRoaming(final NetworkCapabilities capabilities) {
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.P
+                && !capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_NOT_ROAMING);
+    }
+}
@@ -0,0 +1,125 @@
+package com.denno.internetcheck;
+
+import android.net.ConnectivityManager;
+import android.net.NetworkInfo;
+
+import org.junit.Test;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.reactivex.Observable;
+import io.reactivex.ObservableSource;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.functions.Action;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.schedulers.TestScheduler;
+import io.reactivex.subjects.PublishSubject;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+// only disconnected states are observed, connected ones would ask the system for the network
+public class ConnectivityMonitorTest {
+    private static final Connectivity DISCONNECTED = Connectivity.create();
+    private static final Connectivity WIFI_DISCONNECTED =
+            Connectivity.state(NetworkInfo.State.DISCONNECTED)
+                    .type(ConnectivityManager.TYPE_WIFI)
+                    .build();
+
+    private final AtomicInteger registrations = new AtomicInteger();
+    private final AtomicInteger unregistrations = new AtomicInteger();
+    private PublishSubject<Connectivity> network;
+
+    private final ConnectivityMonitor monitor = new ConnectivityMonitor(null,
+            Observable.defer(new Callable<ObservableSource<Connectivity>>() {
+                @Override
+                public ObservableSource<Connectivity> call() {
+                    registrations.incrementAndGet();
+                    network = PublishSubject.create();
+                    return network.doOnDispose(new Action() {
+                        @Override
+                        public void run() {
+                            unregistrations.incrementAndGet();
+                        }
+                    });
+                }
+            }));
+
+    @Test
+    public void shouldRegisterOnceForAllSubscribers() {
+        final TestObserver<Connectivity> first = monitor.observe().test();
+        final TestObserver<Connectivity> second = monitor.observe().test();
+
+        network.onNext(DISCONNECTED);
+
+        assertEquals(1, registrations.get());
+        first.assertValues(DISCONNECTED);
+        second.assertValues(DISCONNECTED);
+    }
+
+    @Test
+    public void shouldReplayLatestConnectivityToLateSubscribers() {
+        monitor.observe().test();
+        network.onNext(DISCONNECTED);
+        network.onNext(WIFI_DISCONNECTED);
+
+        final TestObserver<Connectivity> late = monitor.observe().test();
+
+        late.assertValues(WIFI_DISCONNECTED);
+        assertSame(WIFI_DISCONNECTED, monitor.latest());
+        assertEquals(1, registrations.get());
+    }
+
+    @Test
+    public void shouldUnregisterWithLastSubscriber() {
+        final Disposable first = monitor.observe().subscribe();
+        final Disposable second = monitor.observe().subscribe();
+        network.onNext(DISCONNECTED);
+
+        first.dispose();
+        assertEquals(0, unregistrations.get());
+        assertSame(DISCONNECTED, monitor.latest());
+
+        second.dispose();
+        assertEquals(1, unregistrations.get());
+        assertNull(monitor.latest());
+    }
+
+    @Test
+    public void shouldRegisterAgainAfterTeardown() {
+        monitor.observe().subscribe().dispose();
+
+        final TestObserver<Connectivity> next = monitor.observe().test();
+        network.onNext(WIFI_DISCONNECTED);
+
+        assertEquals(2, registrations.get());
+        next.assertValues(WIFI_DISCONNECTED);
+    }
+
+    @Test
+    public void shouldShareStabilizedStreamPerStabilizer() {
+        final ConnectivityStabilizer stabilizer =
+                new ConnectivityStabilizer(500, 3000, new TestScheduler());
+
+        final Observable<Connectivity> first = monitor.observe(stabilizer);
+        first.test();
+
+        assertSame(first, monitor.observe(stabilizer));
+        assertEquals(1, registrations.get());
+    }
+
+    @Test
+    public void shouldForgetStabilizedStreamWithLastSubscriber() {
+        final ConnectivityStabilizer stabilizer =
+                new ConnectivityStabilizer(500, 3000, new TestScheduler());
+        final Observable<Connectivity> first = monitor.observe(stabilizer);
+
+        first.subscribe().dispose();
+
+        assertEquals(1, unregistrations.get());
+        assertNotSame(first, monitor.observe(stabilizer));
+    }
+}
@@ -0,0 +1,123 @@
+package com.denno.internetcheck;
+
+import android.net.ConnectivityManager;
+import android.net.NetworkInfo;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.observers.TestObserver;
+import io.reactivex.schedulers.TestScheduler;
+import io.reactivex.subjects.PublishSubject;
+
+public class ConnectivityStabilizerTest {
+    private static final int SETTLE_WINDOW_IN_MS = 500;
+    private static final int DISCONNECTED_STABLE_FOR_IN_MS = 3000;
+
+    private static final Connectivity WIFI = connected(ConnectivityManager.TYPE_WIFI);
+    private static final Connectivity MOBILE = connected(ConnectivityManager.TYPE_MOBILE);
+    private static final Connectivity DISCONNECTED = Connectivity.create();
+
+    private final TestScheduler scheduler = new TestScheduler();
+    private final PublishSubject<Connectivity> raw = PublishSubject.create();
+    private TestObserver<Connectivity> settled;
+
+    @Before
+    public void subscribe() {
+        settled = raw.compose(new ConnectivityStabilizer(SETTLE_WINDOW_IN_MS,
+                DISCONNECTED_STABLE_FOR_IN_MS, scheduler)).test();
+    }
+
+    @Test
+    public void shouldPassFirstStateImmediately() {
+        raw.onNext(WIFI);
+
+        settled.assertValues(WIFI);
+    }
+
+    @Test
+    public void shouldEmitLastStateOnceFlappingSettles() {
+        raw.onNext(WIFI);
+        raw.onNext(MOBILE);
+        advance(SETTLE_WINDOW_IN_MS - 1);
+        raw.onNext(WIFI);
+        advance(SETTLE_WINDOW_IN_MS - 1);
+        raw.onNext(MOBILE);
+
+        settled.assertValues(WIFI);
+
+        advance(SETTLE_WINDOW_IN_MS);
+
+        settled.assertValues(WIFI, MOBILE);
+    }
+
+    @Test
+    public void shouldSwallowShortDisconnect() {
+        raw.onNext(WIFI);
+        raw.onNext(DISCONNECTED);
+        advance(DISCONNECTED_STABLE_FOR_IN_MS - 1);
+        raw.onNext(WIFI);
+        advance(DISCONNECTED_STABLE_FOR_IN_MS);
+
+        settled.assertValues(WIFI);
+    }
+
+    @Test
+    public void shouldEmitDisconnectOnlyOnceStable() {
+        raw.onNext(WIFI);
+        raw.onNext(DISCONNECTED);
+
+        advance(SETTLE_WINDOW_IN_MS);
+        settled.assertValues(WIFI);
+
+        advance(DISCONNECTED_STABLE_FOR_IN_MS - SETTLE_WINDOW_IN_MS);
+        settled.assertValues(WIFI, DISCONNECTED);
+    }
+
+    @Test
+    public void shouldEmitReconnectAfterSettleWindow() {
+        raw.onNext(DISCONNECTED);
+        raw.onNext(WIFI);
+
+        advance(SETTLE_WINDOW_IN_MS - 1);
+        settled.assertValues(DISCONNECTED);
+
+        advance(1);
+        settled.assertValues(DISCONNECTED, WIFI);
+    }
+
+    @Test
+    public void shouldNotRepeatSettledState() {
+        raw.onNext(WIFI);
+        raw.onNext(WIFI);
+        advance(SETTLE_WINDOW_IN_MS);
+        raw.onNext(MOBILE);
+        raw.onNext(WIFI);
+        advance(SETTLE_WINDOW_IN_MS);
+
+        settled.assertValues(WIFI);
+    }
+
+    @Test
+    public void shouldEmitPendingStateOnCompletion() {
+        raw.onNext(WIFI);
+        raw.onNext(MOBILE);
+        raw.onComplete();
+
+        settled.assertResult(WIFI, MOBILE);
+    }
+
+    private void advance(final long delayInMs) {
+        scheduler.advanceTimeBy(delayInMs, TimeUnit.MILLISECONDS);
+    }
+
+    private static Connectivity connected(final int type) {
+        return Connectivity.state(NetworkInfo.State.CONNECTED)
+                .detailedState(NetworkInfo.DetailedState.CONNECTED)
+                .type(type)
+                .available(true)
+                .build();
+    }
+}
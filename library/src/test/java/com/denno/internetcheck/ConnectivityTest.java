@@ -0,0 +1,105 @@
+package com.denno.internetcheck;
+
+import android.net.ConnectivityManager;
+import android.net.NetworkInfo;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ConnectivityTest {
+    // more snapshots than the intern table has slots, so some of them collide
+    private static final int SNAPSHOTS = 256;
+
+    @Test
+    public void shouldShareEqualSnapshots() {
+        final Connectivity first = wifi("home");
+        final Connectivity second = wifi("home");
+
+        assertSame(first, second);
+    }
+
+    @Test
+    public void shouldKeepSnapshotsWithDifferentNamesApart() {
+        final Connectivity home = wifi("home");
+        final Connectivity office = wifi("office");
+
+        assertNotEquals(home, office);
+        assertEquals(home.fingerprint(), office.fingerprint());
+        assertFalse(ConnectivityChangeDetector.getInstance().test(home, office));
+    }
+
+    @Test
+    public void shouldKeepSnapshotsWithDifferentStatesApart() {
+        final Connectivity connected = wifi("home");
+        final Connectivity disconnected = Connectivity.state(NetworkInfo.State.DISCONNECTED)
+                .type(ConnectivityManager.TYPE_WIFI)
+                .extraInfo("home")
+                .build();
+
+        assertNotEquals(connected, disconnected);
+        assertNotEquals(connected.fingerprint(), disconnected.fingerprint());
+    }
+
+    @Test
+    public void shouldNeverReturnCollidingSnapshot() {
+        final List<Connectivity> created = new ArrayList<>(SNAPSHOTS);
+        for (int i = 0; i < SNAPSHOTS; i++) {
+            created.add(wifi("network " + i));
+        }
+
+        int evicted = 0;
+        for (int i = 0; i < SNAPSHOTS; i++) {
+            final Connectivity again = wifi("network " + i);
+            assertEquals("network " + i, again.extraInfo());
+            assertEquals(created.get(i), again);
+            assertEquals(created.get(i).hashCode(), again.hashCode());
+            if (again != created.get(i)) {
+                evicted++;
+            }
+        }
+        assertTrue(evicted > 0);
+    }
+
+    @Test
+    public void shouldReplaceCollidingSnapshot() {
+        final Connectivity first = wifi("network 0");
+        for (int i = 1; i < SNAPSHOTS; i++) {
+            wifi("network " + i);
+        }
+
+        final Connectivity again = wifi("network 0");
+
+        // the slot of network 0 is taken by one of the later snapshots by now
+        assertNotSame(first, again);
+        assertEquals(first, again);
+        assertSame(again, wifi("network 0"));
+    }
+
+    @Test
+    public void shouldKeepNegativeTypesIntactInFingerprint() {
+        final Connectivity unknown = Connectivity.type(Connectivity.UNKNOWN_TYPE).build();
+        final Connectivity mobile = Connectivity.type(ConnectivityManager.TYPE_MOBILE).build();
+
+        assertNotEquals(unknown.fingerprint(), mobile.fingerprint());
+        assertEquals(Connectivity.UNKNOWN_TYPE, unknown.type());
+    }
+
+    private static Connectivity wifi(final String extraInfo) {
+        return Connectivity.state(NetworkInfo.State.CONNECTED)
+                .detailedState(NetworkInfo.DetailedState.CONNECTED)
+                .type(ConnectivityManager.TYPE_WIFI)
+                .typeName("WIFI")
+                .available(true)
+                .extraInfo(extraInfo)
+                .build();
+    }
+}